@@ -7,9 +7,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,6 +28,15 @@ public class ActivityLogController {
         return ResponseEntity.ok(logs);
     }
 
+    // Accept: application/x-ndjson -> mỗi log một dòng JSON, ghi dần trong lúc đọc
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllActivityLogs() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(adminLogService::streamAllLogs);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/paged")
     public ResponseEntity<Page<ActivityLog>> getAllActivityLogsWithPagination(
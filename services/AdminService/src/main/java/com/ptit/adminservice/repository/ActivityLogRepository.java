@@ -1,9 +1,18 @@
 package com.ptit.adminservice.repository;
 
 import com.ptit.adminservice.entity.ActivityLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ActivityLogRepository extends JpaRepository<ActivityLog, UUID> {
+    // Đọc tuần tự bằng cursor (cần transaction), dùng cho chế độ NDJSON
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT l FROM ActivityLog l")
+    Stream<ActivityLog> streamAll();
 }
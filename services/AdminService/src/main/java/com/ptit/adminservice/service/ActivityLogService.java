@@ -1,24 +1,39 @@
 package com.ptit.adminservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ptit.adminservice.dto.CreateActivityLogRequest;
 import com.ptit.adminservice.entity.ActivityLog;
 import com.ptit.adminservice.repository.ActivityLogRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ActivityLogService {
+    private static final int STREAM_BATCH_SIZE = 500;
 
     @Autowired
     private ActivityLogRepository activityLogRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public void createLog(CreateActivityLogRequest req) {
         ActivityLog log = ActivityLog.builder()
                 .actorId(req.getActorId())
@@ -36,6 +51,27 @@ public class ActivityLogService {
         return activityLogRepository.findAll();
     }
 
+    /**
+     * Chế độ NDJSON của /logs: đọc qua cursor và ghi từng log thành một dòng JSON ngay khi đọc,
+     * định kỳ dọn persistence context nên bộ nhớ không phụ thuộc số log.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllLogs(OutputStream out) throws IOException {
+        int written = 0;
+        try (Stream<ActivityLog> logs = activityLogRepository.streamAll()) {
+            Iterator<ActivityLog> it = logs.iterator();
+            while (it.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(it.next()));
+                out.write('\n');
+                if (++written % STREAM_BATCH_SIZE == 0) {
+                    out.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        out.flush();
+    }
+
     public Page<ActivityLog> getAllActivityLogsWithPagination(Pageable pageable) {
         return activityLogRepository.findAll(pageable);
     }
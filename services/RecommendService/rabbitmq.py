@@ -262,6 +262,19 @@ async def process_event_application(message: aio_pika.IncomingMessage, table: st
 async def process_event_application_status(message: aio_pika.IncomingMessage, table: str, id_field: str):
     async with message.process():
         data = json.loads(message.body)
+        # Bulk status update from RecruitService: {"items": [{id_field, apply_status}, ...]}
+        if isinstance(data.get("items"), list):
+            rows = [(item.get("apply_status"), item.get(id_field)) for item in data["items"]
+                    if item.get(id_field) and item.get("apply_status")]
+            if len(rows) != len(data["items"]):
+                logger.warning("Skipping %d application status items with missing fields", len(data["items"]) - len(rows))
+            if rows:
+                pool = await get_pool()
+                async with pool.acquire() as conn:
+                    await conn.executemany(f"UPDATE {table} SET apply_status = $1 WHERE {id_field} = $2", rows)
+            logger.info("%s status updated for %d items", table, len(rows))
+            return
+
         application_id = data.get(id_field)
         apply_status = data.get("apply_status")
         if not application_id or not apply_status:
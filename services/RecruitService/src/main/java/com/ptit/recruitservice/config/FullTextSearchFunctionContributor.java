@@ -0,0 +1,27 @@
+package com.ptit.recruitservice.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Đăng ký các hàm full-text search của PostgreSQL để dùng được trong Criteria/JPQL.
+ * fts_match render ra toán tử @@ để PostgreSQL dùng được GIN index trên jobs.search_vector.
+ */
+public class FullTextSearchFunctionContributor implements FunctionContributor {
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_match",
+                "(?1 @@ to_tsquery('simple', ?2))",
+                types.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_rank",
+                "ts_rank(?1, to_tsquery('simple', ?2))",
+                types.resolve(StandardBasicTypes.DOUBLE)
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package com.ptit.recruitservice.config;
+
+import com.ptit.recruitservice.repository.JobRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tạo GIN index cho jobs.search_vector (ddl-auto không tạo được index GIN)
+ * và điền search_vector cho các job cũ chưa được đánh chỉ mục.
+ */
+@Component
+public class JobSearchIndexInitializer {
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobSearchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initSearchIndex() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_jobs_search_vector ON jobs USING GIN (search_vector)");
+        jdbcTemplate.update("UPDATE jobs j SET search_vector = " + JobRepository.SEARCH_VECTOR_EXPR
+                + " WHERE j.search_vector IS NULL");
+    }
+}
@@ -1,16 +1,110 @@
 package com.ptit.recruitservice.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMQConfig {
+    @Value("${company.exchange}")
+    private String companyExchange;
+
+    @Value("${company.changed.routing-key}")
+    private String companyChangedRoutingKey;
+
+    @Value("${recruit.exchange}")
+    private String recruitExchange;
+
+    @Value("${recruit.application.created.routing-key}")
+    private String applicationCreatedRoutingKey;
+
+    @Value("${recruit.application.created.queue}")
+    private String applicationCreatedQueue;
+
+    @Value("${recruit.application.created.retry.max-attempts:5}")
+    private int applicationCreatedMaxAttempts;
+
+    @Value("${recruit.application.created.retry.initial-interval:1000}")
+    private long applicationCreatedInitialInterval;
+
+    @Value("${recruit.application.created.retry.multiplier:2}")
+    private double applicationCreatedMultiplier;
+
+    @Value("${recruit.application.created.retry.max-interval:30000}")
+    private long applicationCreatedMaxInterval;
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         return new RabbitTemplate(connectionFactory);
     }
-}
 
+    @Bean
+    public TopicExchange companyExchange() {
+        return new TopicExchange(companyExchange);
+    }
+
+    @Bean
+    public Queue companyCacheQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding companyCacheBinding() {
+        return BindingBuilder.bind(companyCacheQueue())
+                .to(companyExchange())
+                .with(companyChangedRoutingKey);
+    }
+
+    @Bean
+    public TopicExchange recruitExchange() {
+        return new TopicExchange(recruitExchange);
+    }
+
+    // Hàng đợi bền dùng chung giữa các instance: mỗi đơn ứng tuyển chỉ được xử lý một lần.
+    // Message thử lại hết lượt bị reject và chuyển sang hàng đợi .dlq thay vì bị bỏ
+    @Bean
+    public Queue applicationCreatedQueue() {
+        return QueueBuilder.durable(applicationCreatedQueue)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(applicationCreatedQueue + ".dlq")
+                .build();
+    }
+
+    @Bean
+    public Queue applicationCreatedDeadLetterQueue() {
+        return QueueBuilder.durable(applicationCreatedQueue + ".dlq").build();
+    }
+
+    // Cấu hình thử lại chỉ áp dụng cho listener application.created, các listener khác giữ mặc định
+    @Bean
+    public SimpleRabbitListenerContainerFactory applicationCreatedListenerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(applicationCreatedMaxAttempts)
+                .backOffOptions(applicationCreatedInitialInterval, applicationCreatedMultiplier, applicationCreatedMaxInterval)
+                .recoverer(new RejectAndDontRequeueRecoverer())
+                .build());
+        return factory;
+    }
+
+    @Bean
+    public Binding applicationCreatedBinding() {
+        return BindingBuilder.bind(applicationCreatedQueue())
+                .to(recruitExchange())
+                .with(applicationCreatedRoutingKey);
+    }
+}
@@ -1,10 +1,14 @@
 package com.ptit.recruitservice.controller;
 
+import com.ptit.recruitservice.dto.ApplicationBulkStatusUpdateRequest;
 import com.ptit.recruitservice.dto.ApplicationRequest;
 import com.ptit.recruitservice.dto.ApplicationStatusUpdateRequest;
 import com.ptit.recruitservice.dto.ApplicationResponse;
+import com.ptit.recruitservice.dto.CursorPageResponse;
+import com.ptit.recruitservice.entity.Application;
 import com.ptit.recruitservice.service.ApplicationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -49,6 +53,18 @@ public class ApplicationController {
         return ResponseEntity.ok(responses);
     }
 
+    @PreAuthorize("hasRole('CANDIDATE')")
+    @GetMapping("/all/candidate/cursor")
+    public ResponseEntity<CursorPageResponse<ApplicationResponse>> getApplicationsForCandidateCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String currentUserIdStr = (String) auth.getPrincipal();
+        UUID currentUserId = UUID.fromString(currentUserIdStr);
+        return ResponseEntity.ok(applicationService.getApplicationsForCandidateCursor(currentUserId, after, size, withTotal));
+    }
+
     @PreAuthorize("hasAnyRole('EMPLOYER', 'ADMIN')")
     @PutMapping("/{applicationId}")
     public ResponseEntity<ApplicationResponse> updateStatus(@PathVariable UUID applicationId, @RequestBody ApplicationStatusUpdateRequest request) {
@@ -58,6 +74,18 @@ public class ApplicationController {
         return ResponseEntity.ok(response);
     }
 
+    // Đổi trạng thái nhiều đơn trong một request
+    @PreAuthorize("hasAnyRole('EMPLOYER', 'ADMIN')")
+    @PutMapping("/bulk-status")
+    public ResponseEntity<List<ApplicationResponse>> bulkUpdateStatus(@RequestBody ApplicationBulkStatusUpdateRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String currentUserId = (String) auth.getPrincipal();
+        boolean isAdmin = auth.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        List<ApplicationResponse> responses = applicationService.bulkUpdateStatus(request.getItems(), UUID.fromString(currentUserId), isAdmin);
+        return ResponseEntity.ok(responses);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{applicationId}")
     public ResponseEntity<ApplicationResponse> deleteApplication(@PathVariable UUID applicationId) {
@@ -73,5 +101,23 @@ public class ApplicationController {
         List<ApplicationResponse> responses = applicationService.getApplicationsByJobId(jobId);
         return ResponseEntity.ok(responses);
     }
+
+    // sort: appliedAt | status, direction: asc | desc
+    @PreAuthorize("hasAnyRole('EMPLOYER', 'ADMIN')")
+    @GetMapping("/paged")
+    public ResponseEntity<Page<ApplicationResponse>> getApplicationsByJobIdPaged(
+            @RequestParam("job_id") UUID jobId,
+            @RequestParam(required = false) Application.Status status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "appliedAt") String sort,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String currentUserId = (String) auth.getPrincipal();
+        boolean isAdmin = auth.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        return ResponseEntity.ok(applicationService.getApplicationsByJobIdPaged(jobId, status, page, size, sort, direction,
+                UUID.fromString(currentUserId), isAdmin));
+    }
 }
 
@@ -6,12 +6,14 @@ import com.ptit.recruitservice.service.CVService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 import java.util.UUID;
 
@@ -103,6 +105,15 @@ public class CVController {
         return cvService.getAllCVs();
     }
 
+    // Accept: application/x-ndjson -> mỗi CV một dòng JSON, ghi dần trong lúc đọc
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCVs() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cvService::streamAllCVs);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all/paged")
     public ResponseEntity<Page<CVDto>> getAllCVsPaged(
@@ -113,6 +124,15 @@ public class CVController {
         return ResponseEntity.ok(cvs);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/all/cursor")
+    public CursorPageResponse<CVDto> getAllCVsCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return cvService.getAllCVsCursor(after, size, withTotal);
+    }
+
     @PreAuthorize("hasAnyRole('CANDIDATE', 'ADMIN')")
     @PostMapping("/{cv_id}/retry-embedding")
     public CVDto retryEmbedding(@PathVariable("cv_id") UUID cvId) {
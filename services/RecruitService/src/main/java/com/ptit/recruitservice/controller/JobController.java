@@ -6,12 +6,14 @@ import com.ptit.recruitservice.service.JobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -87,6 +89,14 @@ public class JobController {
         return jobService.getAllJobs();
     }
 
+    // Accept: application/x-ndjson -> mỗi job một dòng JSON, ghi dần trong lúc đọc
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllJobs() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(jobService::streamAllJobs);
+    }
+
     @GetMapping("/all/paged")
     public ResponseEntity<Page<JobDto>> getJobsPaged(
             @RequestParam(defaultValue = "0") int page,
@@ -96,6 +106,14 @@ public class JobController {
         return ResponseEntity.ok(jobs);
     }
 
+    @GetMapping("/all/cursor")
+    public CursorPageResponse<JobDto> getJobsCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return jobService.getJobsCursor(after, size, withTotal);
+    }
+
     @GetMapping("/filter")
     public List<JobDto> filterJobs(
             @RequestParam(required = false) String keyword,
@@ -120,13 +138,39 @@ public class JobController {
             @RequestParam(required = false) Integer maxSalary,
             @RequestParam(required = false) String experience,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean facets) {
+        if (facets) {
+            return jobService.filterJobsPagedWithFacets(
+                    keyword, location, industry, tags, type,
+                    minSalary, maxSalary, experience,
+                    page, size);
+        }
         return jobService.filterJobsPaged(
                 keyword, location, industry, tags, type,
                 minSalary, maxSalary, experience,
                 page, size);
     }
 
+    @GetMapping("/filter/cursor")
+    public CursorPageResponse<JobDto> filterJobsCursor(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) List<String> industry,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer minSalary,
+            @RequestParam(required = false) Integer maxSalary,
+            @RequestParam(required = false) String experience,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return jobService.filterJobsCursor(
+                keyword, location, industry, tags, type,
+                minSalary, maxSalary, experience,
+                after, size, withTotal);
+    }
+
     @PreAuthorize("hasAnyRole('EMPLOYER', 'ADMIN')")
     @PutMapping("/{job_id}/change-status/{status}")
     public JobDto changeJobStatus(@PathVariable("job_id") UUID jobId,
@@ -1,9 +1,15 @@
 package com.ptit.recruitservice.controller;
 
+import com.ptit.recruitservice.dto.CompanyResponse;
 import com.ptit.recruitservice.dto.FileUploadResponse;
 import com.ptit.recruitservice.entity.ReportHistory;
+import com.ptit.recruitservice.exception.BusinessException;
 import com.ptit.recruitservice.repository.ReportHistoryRepository;
+import com.ptit.recruitservice.service.CompanyResolver;
+import com.ptit.recruitservice.service.ReportCacheService;
 import com.ptit.recruitservice.service.ReportExportService;
+import com.ptit.recruitservice.service.ReportJobService;
+import com.ptit.recruitservice.service.ReportRollupService;
 import com.ptit.recruitservice.service.ReportStorageService;
 import com.ptit.recruitservice.enums.ReportType;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +23,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.ByteArrayOutputStream;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -35,6 +42,30 @@ public class ReportExportController {
     @Autowired
     private ReportHistoryRepository historyRepository;
 
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private CompanyResolver companyResolver;
+
+    @Autowired
+    private ReportCacheService cacheService;
+
+    // Dựng lại bảng số liệu tháng: một tháng nếu có year/month, ngược lại toàn bộ các tháng đã kết thúc
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rollups/rebuild")
+    public Map<String, Integer> rebuildRollups(@RequestParam(required = false) Integer year,
+                                               @RequestParam(required = false) Integer month) {
+        if (year != null && month != null) {
+            rollupService.rebuild(YearMonth.of(year, month));
+            return Map.of("rebuiltMonths", 1);
+        }
+        return Map.of("rebuiltMonths", rollupService.rebuildClosedMonths(false));
+    }
+
     @PreAuthorize("hasRole('EMPLOYER')")
     @GetMapping("/history")
     public Page<ReportHistory> getMyReportHistory(@RequestParam(defaultValue = "0") int page,
@@ -51,43 +82,41 @@ public class ReportExportController {
                                            @RequestParam int month,
                                            @RequestParam(defaultValue = "excel") String format,
                                            @RequestParam(name = "report", required = false) List<String> reportKeys) {
-        List<ReportType> types;
-        if (reportKeys == null || reportKeys.isEmpty()) {
-            types = Collections.singletonList(ReportType.ALL);
-        } else {
-            List<String> expanded = reportKeys.stream()
-                    .flatMap(k -> Arrays.stream(k.split(",")))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
-            if (expanded.contains("all")) {
-                types = Collections.singletonList(ReportType.ALL);
-            } else {
-                types = expanded.stream().map(ReportType::fromKey).collect(Collectors.toList());
-            }
-        }
+        List<ReportType> types = parseReportTypes(reportKeys);
+        String contentType = ReportExportService.contentType(format);
+        UUID userId = currentUserId();
+        UUID companyId = currentCompanyId(userId);
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            String contentType;
-            if ("pdf".equalsIgnoreCase(format)) {
-                exportService.exportPdf(types, year, month, baos);
-                contentType = "application/pdf";
-            } else {
-                exportService.exportExcel(types, year, month, baos);
-                contentType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-            }
-            byte[] bytes = baos.toByteArray();
+        // Tháng đã kết thúc: dùng lại báo cáo (kể cả bản sinh sẵn) nếu số liệu chưa đổi; còn lại ghi thẳng vào luồng upload MinIO, không buffer cả file
+        String objectName = cacheService.getOrGenerate(companyId, types, format, year, month,
+                () -> storageService.streamUpload(out -> exportService.export(types, format, companyId, year, month, out),
+                        contentType, "reports"));
+        String url = storageService.saveHistory(objectName, userId, types, format, year, month);
+        return new FileUploadResponse(url);
+    }
+
+    // Xuất bất đồng bộ: trả về ngay bản ghi lịch sử (status = queued), theo dõi qua /history/{id} hoặc /history/{id}/events
+    @PreAuthorize("hasRole('EMPLOYER')")
+    @PostMapping("/export/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ReportHistory exportAsync(@RequestParam int year,
+                                     @RequestParam int month,
+                                     @RequestParam(defaultValue = "excel") String format,
+                                     @RequestParam(name = "report", required = false) List<String> reportKeys) {
+        UUID userId = currentUserId();
+        return reportJobService.submit(userId, currentCompanyId(userId), parseReportTypes(reportKeys), format, year, month);
+    }
 
-            // get current user id from security context (principal stored as String UUID)
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String principal = auth != null ? (String) auth.getPrincipal() : null;
-            UUID userId = principal != null ? UUID.fromString(principal) : null;
+    @PreAuthorize("hasRole('EMPLOYER')")
+    @GetMapping("/history/{id}")
+    public ReportHistory getReportHistory(@PathVariable UUID id) {
+        return reportJobService.getOwned(id, currentUserId());
+    }
 
-            String url = storageService.uploadAndSaveHistory(bytes, contentType,"reports" , userId, types, format, year, month);
-            return new FileUploadResponse(url);
-        } catch (Exception e) {
-            throw new RuntimeException("Export/upload failed: " + e.getMessage(), e);
-        }
+    @PreAuthorize("hasRole('EMPLOYER')")
+    @GetMapping(value = "/history/{id}/events", produces = "text/event-stream")
+    public SseEmitter subscribeReportHistory(@PathVariable UUID id) {
+        return reportJobService.subscribe(id, currentUserId());
     }
 
     @PreAuthorize("hasRole('EMPLOYER')")
@@ -102,4 +131,39 @@ public class ReportExportController {
         UUID userId = UUID.fromString(principal);
         storageService.deleteHistory(id, userId);
     }
+
+    private UUID currentUserId() {
+        // get current user id from security context (principal stored as String UUID)
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String principal = auth != null ? (String) auth.getPrincipal() : null;
+        return principal != null ? UUID.fromString(principal) : null;
+    }
+
+    // Báo cáo chỉ gồm dữ liệu của công ty mà nhà tuyển dụng đang đăng nhập sở hữu
+    private UUID currentCompanyId(UUID userId) {
+        CompanyResponse company = userId != null ? companyResolver.getByUserId(userId) : null;
+        if (company == null || company.getCompanyId() == null) {
+            throw new BusinessException("Tài khoản chưa có thông tin công ty");
+        }
+        return company.getCompanyId();
+    }
+
+    private List<ReportType> parseReportTypes(List<String> reportKeys) {
+        List<ReportType> types;
+        if (reportKeys == null || reportKeys.isEmpty()) {
+            types = Collections.singletonList(ReportType.ALL);
+        } else {
+            List<String> expanded = reportKeys.stream()
+                    .flatMap(k -> Arrays.stream(k.split(",")))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .collect(Collectors.toList());
+            if (expanded.contains("all")) {
+                types = Collections.singletonList(ReportType.ALL);
+            } else {
+                types = expanded.stream().map(ReportType::fromKey).collect(Collectors.toList());
+            }
+        }
+        return types;
+    }
 }
@@ -0,0 +1,23 @@
+package com.ptit.recruitservice.dto;
+
+import com.ptit.recruitservice.entity.Application;
+
+import java.util.List;
+import java.util.UUID;
+
+public class ApplicationBulkStatusUpdateRequest {
+    private List<Item> items;
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        private UUID applicationId;
+        private Application.Status status;
+
+        public UUID getApplicationId() { return applicationId; }
+        public void setApplicationId(UUID applicationId) { this.applicationId = applicationId; }
+        public Application.Status getStatus() { return status; }
+        public void setStatus(Application.Status status) { this.status = status; }
+    }
+}
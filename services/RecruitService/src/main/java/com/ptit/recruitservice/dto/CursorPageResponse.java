@@ -0,0 +1,18 @@
+package com.ptit.recruitservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> data;
+    private int pageSize;
+    private String nextCursor;   // null khi đã hết dữ liệu
+    private boolean hasNext;
+    private Long totalItems;     // null nếu client không yêu cầu tổng
+}
@@ -0,0 +1,19 @@
+package com.ptit.recruitservice.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class FacetedPaginatedResponse<T> extends PaginatedResponse<T> {
+    private JobFacetsDto facets;
+
+    public FacetedPaginatedResponse(List<T> data, int currentPage, int pageSize, long totalItems, int totalPages, JobFacetsDto facets) {
+        super(data, currentPage, pageSize, totalItems, totalPages);
+        this.facets = facets;
+    }
+}
@@ -25,6 +25,11 @@ public class JobDto {
     private List<GroupJobTagDto> groupJobTags;
     private UUID createdBy;
     private UUID updatedBy;
+    private long appliedCount;
+    private long pendingCount;
+    private long approvedCount;
+    private long rejectedCount;
+    private long favoriteCount;
     // Getters and setters
 
     public String getExperience() {
@@ -186,4 +191,44 @@ public class JobDto {
     public void setUpdatedBy(UUID updatedBy) {
         this.updatedBy = updatedBy;
     }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    public void setAppliedCount(long appliedCount) {
+        this.appliedCount = appliedCount;
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(long pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public long getApprovedCount() {
+        return approvedCount;
+    }
+
+    public void setApprovedCount(long approvedCount) {
+        this.approvedCount = approvedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public long getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public void setFavoriteCount(long favoriteCount) {
+        this.favoriteCount = favoriteCount;
+    }
 }
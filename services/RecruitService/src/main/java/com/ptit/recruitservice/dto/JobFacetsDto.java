@@ -0,0 +1,17 @@
+package com.ptit.recruitservice.dto;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Số job khớp bộ lọc theo từng giá trị của mỗi nhóm lọc (key là giá trị truyền lại cho /jobs/filter)
+@Data
+public class JobFacetsDto {
+    private Map<String, Long> industries = new LinkedHashMap<>();
+    private Map<String, Long> tags = new LinkedHashMap<>();
+    private Map<String, Long> cities = new LinkedHashMap<>();
+    private Map<String, Long> jobTypes = new LinkedHashMap<>();
+    private Map<String, Long> experiences = new LinkedHashMap<>();
+    private Map<String, Long> salaryRanges = new LinkedHashMap<>();   // theo triệu đồng: "0-10", ..., "50+", "negotiable"
+}
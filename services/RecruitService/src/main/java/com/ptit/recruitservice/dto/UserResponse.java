@@ -5,6 +5,7 @@ import java.util.UUID;
 
 @Data
 public class UserResponse {
+    private UUID userId;
     private String email;
     private String fullName;
 }
\ No newline at end of file
@@ -6,8 +6,34 @@ import org.hibernate.annotations.GenericGenerator;
 import java.util.UUID;
 import java.sql.Timestamp;
 
+/*
+ * Các quan hệ đều LAZY; mỗi trường hợp đọc khai báo đúng phần cần nạp qua entity graph ở repository,
+ * tránh nạp job / CV / template (layout_json, theme_json) cho các truy vấn không dùng đến.
+ */
 @Entity
-@Table(name = "applications")
+@NamedEntityGraphs({
+        // Danh sách đơn của ứng viên: cần chi tiết job và CV
+        @NamedEntityGraph(name = "Application.candidateList", attributeNodes = {
+                @NamedAttributeNode("job"), @NamedAttributeNode("cv")
+        }),
+        // Danh sách ứng viên của một job cho nhà tuyển dụng: job đã biết, chỉ cần CV
+        @NamedEntityGraph(name = "Application.employerList", attributeNodes = {
+                @NamedAttributeNode("cv")
+        }),
+        // Dòng báo cáo ứng viên: tiêu đề job và CV
+        @NamedEntityGraph(name = "Application.reportRow", attributeNodes = {
+                @NamedAttributeNode("job"), @NamedAttributeNode("cv")
+        }),
+        // Đổi trạng thái: thông báo cần tiêu đề job và chủ CV
+        @NamedEntityGraph(name = "Application.statusChange", attributeNodes = {
+                @NamedAttributeNode("job"), @NamedAttributeNode("cv")
+        })
+})
+@Table(name = "applications", indexes = {
+        @Index(name = "idx_applications_applied_at_id", columnList = "applied_at, application_id"),
+        @Index(name = "idx_applications_job_applied_at", columnList = "job_id, applied_at, application_id"),
+        @Index(name = "idx_applications_job_status_applied_at", columnList = "job_id, status, applied_at")
+})
 public class Application {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -15,11 +41,11 @@ public class Application {
     @Column(name = "application_id", nullable = false)
     private UUID applicationId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_id", referencedColumnName = "job_id")
     private Job job;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cv_id", referencedColumnName = "cv_id")
     private CV cv;
 
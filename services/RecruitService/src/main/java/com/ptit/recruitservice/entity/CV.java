@@ -10,7 +10,9 @@ import java.sql.Timestamp;
 import java.util.UUID;
 
 @Entity
-@Table(name = "cvs")
+@Table(name = "cvs", indexes = {
+        @Index(name = "idx_cvs_created_at_cv_id", columnList = "created_at, cv_id")
+})
 public class CV {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -26,7 +28,7 @@ public class CV {
     @Column(name = "source_type", length = 20)
     private SourceType sourceType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "template_id", referencedColumnName = "template_id", nullable = true)
     private Template template;
 
@@ -7,7 +7,11 @@ import java.util.UUID;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "favorite_jobs")
+@NamedEntityGraph(name = "FavoriteJob.withJob", attributeNodes = @NamedAttributeNode("job"))
+@Table(name = "favorite_jobs", indexes = {
+        @Index(name = "idx_favorite_jobs_created_at", columnList = "created_at"),
+        @Index(name = "idx_favorite_jobs_job_created_at", columnList = "job_id, created_at")
+})
 public class FavoriteJob {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -18,7 +22,7 @@ public class FavoriteJob {
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_id", referencedColumnName = "job_id")
     private Job job;
 
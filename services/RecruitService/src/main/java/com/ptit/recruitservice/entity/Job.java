@@ -8,7 +8,11 @@ import java.util.UUID;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        @Index(name = "idx_jobs_created_at_job_id", columnList = "created_at, job_id"),
+        @Index(name = "idx_jobs_status_deadline", columnList = "status, deadline"),
+        @Index(name = "idx_jobs_company_created_at", columnList = "company_id, created_at")
+})
 public class Job {
 
     @Id
@@ -80,6 +84,26 @@ public class Job {
     @Column(name = "created_at")
     private Timestamp createdAt;
 
+    // Được cập nhật bằng native query (JobRepository.refreshSearchVector), không ghi qua entity
+    @Column(name = "search_vector", columnDefinition = "tsvector", insertable = false, updatable = false)
+    private String searchVector;
+
+    // Bộ đếm phi chuẩn hóa, chỉ cập nhật bằng câu lệnh cộng trừ nguyên tử (JobCounterService), không ghi qua entity
+    @Column(name = "applied_count", columnDefinition = "bigint not null default 0", insertable = false, updatable = false)
+    private long appliedCount;
+
+    @Column(name = "pending_count", columnDefinition = "bigint not null default 0", insertable = false, updatable = false)
+    private long pendingCount;
+
+    @Column(name = "approved_count", columnDefinition = "bigint not null default 0", insertable = false, updatable = false)
+    private long approvedCount;
+
+    @Column(name = "rejected_count", columnDefinition = "bigint not null default 0", insertable = false, updatable = false)
+    private long rejectedCount;
+
+    @Column(name = "favorite_count", columnDefinition = "bigint not null default 0", insertable = false, updatable = false)
+    private long favoriteCount;
+
     public UUID getJobId() {
         return jobId;
     }
@@ -194,6 +218,30 @@ public class Job {
         this.createdAt = createdAt;
     }
 
+    public String getSearchVector() {
+        return searchVector;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public long getApprovedCount() {
+        return approvedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getFavoriteCount() {
+        return favoriteCount;
+    }
+
     public List<JobGroupTagMapping> getJobGroupTagMappings() {
         return jobGroupTagMappings;
     }
@@ -14,11 +14,11 @@ public class JobGroupTagMapping {
     @Column(name = "jg_tag_id", nullable = false)
     private UUID jgTagId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_id", referencedColumnName = "job_id")
     private Job job;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_tag_id", referencedColumnName = "group_tag_id")
     private GroupJobTag groupJobTag;
 
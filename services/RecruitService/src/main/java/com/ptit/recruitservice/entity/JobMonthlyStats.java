@@ -0,0 +1,69 @@
+package com.ptit.recruitservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Số liệu cộng dồn theo (job, tháng) cho báo cáo; tháng tính theo applied_at / created_at.
+ * Được cập nhật tăng dần khi ghi (ReportRollupService) và có thể dựng lại từ dữ liệu gốc.
+ */
+@Entity
+@Table(name = "job_monthly_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_job_monthly_stats_job_month", columnNames = {"job_id", "stat_month"})
+}, indexes = {
+        @Index(name = "idx_job_monthly_stats_month", columnList = "stat_month"),
+        @Index(name = "idx_job_monthly_stats_company_month", columnList = "company_id, stat_month")
+})
+public class JobMonthlyStats {
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "company_id")
+    private UUID companyId;
+
+    // Ngày đầu tháng
+    @Column(name = "stat_month", nullable = false)
+    private LocalDate statMonth;
+
+    @Column(name = "applied", nullable = false)
+    private long applied;
+
+    @Column(name = "approved", nullable = false)
+    private long approved;
+
+    @Column(name = "rejected", nullable = false)
+    private long rejected;
+
+    @Column(name = "favorites", nullable = false)
+    private long favorites;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getJobId() { return jobId; }
+    public void setJobId(UUID jobId) { this.jobId = jobId; }
+
+    public UUID getCompanyId() { return companyId; }
+    public void setCompanyId(UUID companyId) { this.companyId = companyId; }
+
+    public LocalDate getStatMonth() { return statMonth; }
+    public void setStatMonth(LocalDate statMonth) { this.statMonth = statMonth; }
+
+    public long getApplied() { return applied; }
+    public void setApplied(long applied) { this.applied = applied; }
+
+    public long getApproved() { return approved; }
+    public void setApproved(long approved) { this.approved = approved; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getFavorites() { return favorites; }
+    public void setFavorites(long favorites) { this.favorites = favorites; }
+}
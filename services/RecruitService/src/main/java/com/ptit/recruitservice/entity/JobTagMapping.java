@@ -14,11 +14,11 @@ public class JobTagMapping {
     @Column(name = "jt_tag_id", nullable = false)
     private UUID jtTagId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_id", referencedColumnName = "job_id")
     private Job job;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_tag_id", referencedColumnName = "job_tag_id")
     private JobTag jobTag;
 
@@ -0,0 +1,66 @@
+package com.ptit.recruitservice.entity;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Báo cáo tháng đầy đủ (mọi phần) đã sinh sẵn cho một công ty sau khi tháng kết thúc.
+ * Mỗi dòng vừa là checkpoint của lượt sinh trước (công ty / tháng / định dạng đã xong)
+ * vừa là chỉ mục để trả lại object đã lưu thay vì sinh lại.
+ */
+@Entity
+@Table(name = "precomputed_reports", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_precomputed_reports_company_month_format", columnNames = {"company_id", "stat_month", "file_format"})
+}, indexes = {
+        @Index(name = "idx_precomputed_reports_object_name", columnList = "object_name")
+})
+public class PrecomputedReport {
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @Column(name = "company_id", nullable = false)
+    private UUID companyId;
+
+    // Ngày đầu tháng
+    @Column(name = "stat_month", nullable = false)
+    private LocalDate statMonth;
+
+    // "excel" hoặc "pdf"
+    @Column(name = "file_format", nullable = false, length = 20)
+    private String fileFormat;
+
+    @Column(name = "object_name", nullable = false, columnDefinition = "TEXT")
+    private String objectName;
+
+    @Column(name = "generated_at")
+    private Timestamp generatedAt;
+
+    // Thời gian sinh báo cáo (ms)
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getCompanyId() { return companyId; }
+    public void setCompanyId(UUID companyId) { this.companyId = companyId; }
+
+    public LocalDate getStatMonth() { return statMonth; }
+    public void setStatMonth(LocalDate statMonth) { this.statMonth = statMonth; }
+
+    public String getFileFormat() { return fileFormat; }
+    public void setFileFormat(String fileFormat) { this.fileFormat = fileFormat; }
+
+    public String getObjectName() { return objectName; }
+    public void setObjectName(String objectName) { this.objectName = objectName; }
+
+    public Timestamp getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(Timestamp generatedAt) { this.generatedAt = generatedAt; }
+
+    public Long getDurationMs() { return durationMs; }
+    public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+}
@@ -0,0 +1,42 @@
+package com.ptit.recruitservice.entity;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * Object báo cáo đã sinh, khóa theo dấu vân tay của yêu cầu (công ty, loại báo cáo, tháng, định dạng)
+ * cộng watermark dữ liệu của tháng đó. Cùng khóa nghĩa là cùng nội dung nên có thể dùng lại object.
+ */
+@Entity
+@Table(name = "report_cache_entries", indexes = {
+        @Index(name = "idx_report_cache_entries_object_name", columnList = "object_name")
+})
+public class ReportCacheEntry {
+    // SHA-256 (hex) của yêu cầu đã chuẩn hóa + watermark
+    @Id
+    @Column(name = "cache_key", nullable = false, length = 64)
+    private String cacheKey;
+
+    @Column(name = "company_id", nullable = false)
+    private UUID companyId;
+
+    @Column(name = "object_name", nullable = false, columnDefinition = "TEXT")
+    private String objectName;
+
+    @Column(name = "created_at")
+    private Timestamp createdAt;
+
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public UUID getCompanyId() { return companyId; }
+    public void setCompanyId(UUID companyId) { this.companyId = companyId; }
+
+    public String getObjectName() { return objectName; }
+    public void setObjectName(String objectName) { this.objectName = objectName; }
+
+    public Timestamp getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+}
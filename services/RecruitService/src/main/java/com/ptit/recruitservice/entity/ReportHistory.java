@@ -7,7 +7,9 @@ import java.util.UUID;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "report_histories")
+@Table(name = "report_histories", indexes = {
+        @Index(name = "idx_report_histories_status_created", columnList = "status, created_at")
+})
 public class ReportHistory {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -33,6 +35,26 @@ public class ReportHistory {
     @Column(name = "report_name", length = 200)
     private String reportName;
 
+    // null với các bản ghi tạo trước khi có xuất bất đồng bộ (luôn là đã xong)
+    public enum Status { queued, running, done, failed }
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private Status status;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "completed_at")
+    private Timestamp completedAt;
+
+    // Thời gian sinh báo cáo (ms)
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    // Instance đang giữ job queued / running cập nhật định kỳ; job không còn heartbeat mới bị coi là treo
+    @Column(name = "heartbeat_at")
+    private Timestamp heartbeatAt;
+
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
 
@@ -53,4 +75,19 @@ public class ReportHistory {
 
     public String getReportName() { return reportName; }
     public void setReportName(String reportName) { this.reportName = reportName; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public Timestamp getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Timestamp completedAt) { this.completedAt = completedAt; }
+
+    public Long getDurationMs() { return durationMs; }
+    public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+
+    public Timestamp getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(Timestamp heartbeatAt) { this.heartbeatAt = heartbeatAt; }
 }
@@ -0,0 +1,26 @@
+package com.ptit.recruitservice.entity;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Đánh dấu các tháng đã được dựng job_monthly_stats đầy đủ từ dữ liệu gốc.
+ */
+@Entity
+@Table(name = "report_rollup_months")
+public class ReportRollupMonth {
+    @Id
+    @Column(name = "stat_month", nullable = false)
+    private LocalDate statMonth;
+
+    @Column(name = "rebuilt_at")
+    private Timestamp rebuiltAt;
+
+    public LocalDate getStatMonth() { return statMonth; }
+    public void setStatMonth(LocalDate statMonth) { this.statMonth = statMonth; }
+
+    public Timestamp getRebuiltAt() { return rebuiltAt; }
+    public void setRebuiltAt(Timestamp rebuiltAt) { this.rebuiltAt = rebuiltAt; }
+}
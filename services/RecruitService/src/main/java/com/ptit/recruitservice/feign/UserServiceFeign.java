@@ -5,9 +5,12 @@ import com.ptit.recruitservice.dto.UserResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
 import java.util.UUID;
 
 @FeignClient(name = "userServiceClient", url = "${external.user.service.url}")
@@ -21,6 +24,12 @@ public interface UserServiceFeign {
     @GetMapping("/api/user-service/companies/by-companyId/{companyId}")
     CompanyResponse getCompanyByCompanyId(@PathVariable("companyId") UUID companyId, @RequestHeader("X-Internal-Secret") String secret);
 
+    @PostMapping("/api/user-service/users/by-ids")
+    List<UserResponse> getUsersByIds(@RequestBody List<UUID> userIds, @RequestHeader("X-Internal-Secret") String secret);
+
+    @PostMapping("/api/user-service/companies/by-ids")
+    List<CompanyResponse> getCompaniesByIds(@RequestBody List<UUID> companyIds, @RequestHeader("X-Internal-Secret") String secret);
+
 }
 
 
@@ -3,16 +3,71 @@ package com.ptit.recruitservice.repository;
 import com.ptit.recruitservice.entity.Application;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ApplicationRepository extends JpaRepository<Application, UUID> {
+    @EntityGraph("Application.candidateList")
     List<Application> findByJob_JobIdAndCv_UserIdAndIsDeletedFalse(UUID jobId, UUID userId);
+    @EntityGraph("Application.candidateList")
     List<Application> findByCv_UserIdAndIsDeletedFalse(UUID userId);
 
+    @EntityGraph("Application.statusChange")
+    Optional<Application> findWithJobAndCvByApplicationId(UUID applicationId);
+    @EntityGraph("Application.statusChange")
+    List<Application> findWithJobAndCvByApplicationIdIn(Collection<UUID> applicationIds);
+
+    // Khóa dòng đến hết transaction trước khi đọc trạng thái cũ để tính chênh lệch bộ đếm;
+    // nhiều dòng thì khóa theo thứ tự id để các request song song không deadlock
+    @Query(value = "SELECT application_id FROM applications WHERE application_id = :id FOR UPDATE", nativeQuery = true)
+    Optional<UUID> lockById(@Param("id") UUID applicationId);
+    @Query(value = "SELECT application_id FROM applications WHERE application_id IN :ids ORDER BY application_id FOR UPDATE",
+            nativeQuery = true)
+    List<UUID> lockByIds(@Param("ids") Collection<UUID> applicationIds);
+
+    // Cập nhật trạng thái hàng loạt trong một câu lệnh
+    @Modifying
+    @Query("UPDATE Application a SET a.status = :status WHERE a.applicationId IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<UUID> ids, @Param("status") Application.Status status);
+
+    // Keyset pagination (appliedAt DESC, applicationId DESC) cho danh sách của ứng viên
+    @EntityGraph("Application.candidateList")
+    List<Application> findByCv_UserIdAndIsDeletedFalseOrderByAppliedAtDescApplicationIdDesc(UUID userId, Pageable pageable);
+    @EntityGraph("Application.candidateList")
+    @Query("SELECT a FROM Application a WHERE a.cv.userId = :userId AND a.isDeleted = false"
+            + " AND (a.appliedAt < :appliedAt OR (a.appliedAt = :appliedAt AND a.applicationId < :applicationId))"
+            + " ORDER BY a.appliedAt DESC, a.applicationId DESC")
+    List<Application> findCandidatePageAfter(@Param("userId") UUID userId, @Param("appliedAt") Timestamp appliedAt,
+                                             @Param("applicationId") UUID applicationId, Pageable pageable);
+    long countByCv_UserIdAndIsDeletedFalse(UUID userId);
+
+    // Đơn ứng tuyển của một job cho nhà tuyển dụng, CV được nạp cùng truy vấn (index job_id, applied_at)
+    @EntityGraph("Application.employerList")
+    @Query("SELECT a FROM Application a"
+            + " WHERE a.job.jobId = :jobId AND (a.isDeleted IS NULL OR a.isDeleted = false)"
+            + " ORDER BY a.appliedAt DESC, a.applicationId DESC")
+    List<Application> findByJobIdWithCv(@Param("jobId") UUID jobId);
+
+    // Trang đơn ứng tuyển của một job, lọc trạng thái tùy chọn (index job_id, status, applied_at);
+    // chỉ chiếu các cột tóm tắt của CV, không đọc data_json:
+    // [applicationId, status, isDeleted, appliedAt, cvId, userId, sourceType, templateId, fileUrl, title, statusEmbedding, cvIsDeleted, cvCreatedAt]
+    String JOB_APPLICANT_WHERE = " WHERE a.job.jobId = :jobId AND (a.isDeleted IS NULL OR a.isDeleted = false)"
+            + " AND (:status IS NULL OR a.status = :status)";
+    @Query(value = "SELECT a.applicationId, a.status, a.isDeleted, a.appliedAt, c.cvId, c.userId, c.sourceType, t.templateId,"
+            + " c.fileUrl, c.title, c.statusEmbedding, c.isDeleted, c.createdAt"
+            + " FROM Application a JOIN a.cv c LEFT JOIN c.template t" + JOB_APPLICANT_WHERE,
+            countQuery = "SELECT COUNT(a) FROM Application a" + JOB_APPLICANT_WHERE)
+    Page<Object[]> findApplicantSummaries(@Param("jobId") UUID jobId, @Param("status") Application.Status status, Pageable pageable);
+
     // Count helpers for stats
     long countByIsDeletedFalse();
     long countByStatusAndIsDeletedFalse(Application.Status status);
@@ -20,9 +75,36 @@ public interface ApplicationRepository extends JpaRepository<Application, UUID>
     // Added for report queries
     long countByAppliedAtBetween(Timestamp start, Timestamp end);
     long countByStatusAndAppliedAtBetween(Application.Status status, Timestamp start, Timestamp end);
+    @EntityGraph("Application.reportRow")
     Page<Application> findByAppliedAtBetween(Timestamp start, Timestamp end, Pageable pageable);
 
+    // Keyset theo (appliedAt, applicationId) trong một job (index job_id, applied_at, application_id) cho xuất báo cáo ứng viên:
+    // [applicationId, cvId, cvTitle, jobId, jobTitle, status, appliedAt], không nạp entity
+    String APPLICANT_ROW_SELECT = "SELECT a.applicationId, c.cvId, c.title, j.jobId, j.title, a.status, a.appliedAt"
+            + " FROM Application a LEFT JOIN a.cv c JOIN a.job j"
+            + " WHERE j.jobId = :jobId AND a.appliedAt BETWEEN :start AND :end";
+    @Query(APPLICANT_ROW_SELECT + " ORDER BY a.appliedAt, a.applicationId")
+    List<Object[]> findApplicantRows(@Param("jobId") UUID jobId, @Param("start") Timestamp start,
+                                     @Param("end") Timestamp end, Pageable pageable);
+    @Query(APPLICANT_ROW_SELECT
+            + " AND (a.appliedAt > :appliedAt OR (a.appliedAt = :appliedAt AND a.applicationId > :applicationId))"
+            + " ORDER BY a.appliedAt, a.applicationId")
+    List<Object[]> findApplicantRowsAfter(@Param("jobId") UUID jobId, @Param("start") Timestamp start,
+                                          @Param("end") Timestamp end, @Param("appliedAt") Timestamp appliedAt,
+                                          @Param("applicationId") UUID applicationId, Pageable pageable);
+
     // Per-job counts within time range
     long countByJob_JobIdAndAppliedAtBetween(UUID jobId, Timestamp start, Timestamp end);
     long countByJob_JobIdAndStatusAndAppliedAtBetween(UUID jobId, Application.Status status, Timestamp start, Timestamp end);
+
+    // Đếm theo job của một công ty cho cả tháng trong một lần quét: [jobId, applied, approved, rejected]
+    @Query("SELECT j.jobId, COUNT(a),"
+            + " SUM(CASE WHEN a.status = :approved THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN a.status = :rejected THEN 1 ELSE 0 END)"
+            + " FROM Application a JOIN a.job j"
+            + " WHERE j.companyId = :companyId AND a.appliedAt BETWEEN :start AND :end GROUP BY j.jobId")
+    List<Object[]> countPerJobBetween(@Param("companyId") UUID companyId,
+                                      @Param("start") Timestamp start, @Param("end") Timestamp end,
+                                      @Param("approved") Application.Status approved,
+                                      @Param("rejected") Application.Status rejected);
 }
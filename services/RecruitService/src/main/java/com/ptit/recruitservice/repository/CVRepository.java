@@ -1,15 +1,33 @@
 package com.ptit.recruitservice.repository;
 
 import com.ptit.recruitservice.entity.CV;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CVRepository extends JpaRepository<CV, UUID> {
     List<CV> findByUserIdAndIsDeletedFalse(UUID userId);
     Page<CV> findByIsDeletedFalse(Pageable pageable);
     List<CV> findByIsDeletedFalse();
+    // Đọc tuần tự bằng cursor (cần transaction), dùng cho chế độ NDJSON
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<CV> streamByIsDeletedFalse();
     long countByIsDeletedFalse();
+
+    // Keyset pagination (createdAt DESC, cvId DESC), không chạy COUNT
+    List<CV> findByIsDeletedFalseOrderByCreatedAtDescCvIdDesc(Pageable pageable);
+    @Query("SELECT c FROM CV c WHERE c.isDeleted = false"
+            + " AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.cvId < :cvId))"
+            + " ORDER BY c.createdAt DESC, c.cvId DESC")
+    List<CV> findPageAfter(@Param("createdAt") Timestamp createdAt, @Param("cvId") UUID cvId, Pageable pageable);
 }
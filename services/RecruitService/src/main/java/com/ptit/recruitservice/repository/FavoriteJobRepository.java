@@ -1,15 +1,35 @@
 package com.ptit.recruitservice.repository;
 
 import com.ptit.recruitservice.entity.FavoriteJob;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface FavoriteJobRepository extends JpaRepository<FavoriteJob, UUID> {
     List<FavoriteJob> findByUserId(UUID userId);
 
+    // Bỏ yêu thích cần companyId của job để cập nhật số liệu báo cáo
+    @EntityGraph("FavoriteJob.withJob")
+    Optional<FavoriteJob> findWithJobByFavoriteId(UUID favoriteId);
+
+    // Trả về số dòng đã xóa: hai request xóa song song thì chỉ một request nhận được 1
+    @Modifying
+    @Query("DELETE FROM FavoriteJob f WHERE f.favoriteId = :favoriteId")
+    int deleteByFavoriteId(@Param("favoriteId") UUID favoriteId);
+
     // For reports
     long countByJob_JobIdAndCreatedAtBetween(UUID jobId, Timestamp start, Timestamp end);
+
+    // [jobId, favorites] cho các job của công ty có lượt yêu thích trong khoảng thời gian
+    @Query("SELECT j.jobId, COUNT(f) FROM FavoriteJob f JOIN f.job j"
+            + " WHERE j.companyId = :companyId AND f.createdAt BETWEEN :start AND :end GROUP BY j.jobId")
+    List<Object[]> countPerJobBetween(@Param("companyId") UUID companyId,
+                                      @Param("start") Timestamp start, @Param("end") Timestamp end);
 }
@@ -2,10 +2,18 @@ package com.ptit.recruitservice.repository;
 
 import com.ptit.recruitservice.entity.JobGroupTagMapping;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface JobGroupTagMappingRepository extends JpaRepository<JobGroupTagMapping, UUID> {
     List<JobGroupTagMapping> findByJob_JobId(UUID jobId);
     void deleteByJob_JobId(UUID jobId);
+
+    // Mỗi dòng: [jobId (UUID), GroupJobTag] — dùng để gắn ngành nghề cho cả trang job trong 1 truy vấn
+    @Query("SELECT m.job.jobId, g FROM JobGroupTagMapping m JOIN m.groupJobTag g WHERE m.job.jobId IN :jobIds")
+    List<Object[]> findGroupTagsByJobIds(@Param("jobIds") Collection<UUID> jobIds);
 }
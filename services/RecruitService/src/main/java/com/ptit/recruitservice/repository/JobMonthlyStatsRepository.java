@@ -0,0 +1,21 @@
+package com.ptit.recruitservice.repository;
+
+import com.ptit.recruitservice.entity.JobMonthlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface JobMonthlyStatsRepository extends JpaRepository<JobMonthlyStats, UUID> {
+    List<JobMonthlyStats> findByCompanyIdAndStatMonth(UUID companyId, LocalDate statMonth);
+
+    // Các tháng còn dòng chưa có company_id (dựng trước khi thêm cột), cần dựng lại
+    @Query("SELECT DISTINCT s.statMonth FROM JobMonthlyStats s WHERE s.companyId IS NULL")
+    List<LocalDate> findMonthsMissingCompany();
+
+    @Query("SELECT DISTINCT s.companyId FROM JobMonthlyStats s WHERE s.statMonth = :statMonth AND s.companyId IS NOT NULL")
+    List<UUID> findCompanyIdsByStatMonth(@Param("statMonth") LocalDate statMonth);
+}
@@ -1,23 +1,56 @@
 package com.ptit.recruitservice.repository;
 
 import com.ptit.recruitservice.entity.Job;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface JobRepository extends JpaRepository<Job, UUID>, JpaSpecificationExecutor<Job> {
+    // Full-text document of a job: title (A) > tags / industries (B) > description (C)
+    String SEARCH_VECTOR_EXPR =
+            "setweight(to_tsvector('simple', coalesce(j.title, '')), 'A')"
+            + " || setweight(to_tsvector('simple', coalesce((SELECT string_agg(t.job_name, ' ') FROM job_tag_mapping m"
+            + " JOIN job_tags t ON t.job_tag_id = m.job_tag_id WHERE m.job_id = j.job_id), '')), 'B')"
+            + " || setweight(to_tsvector('simple', coalesce((SELECT string_agg(g.group_job_name, ' ') FROM job_group_tag_mapping gm"
+            + " JOIN group_job_tags g ON g.group_tag_id = gm.group_tag_id WHERE gm.job_id = j.job_id), '')), 'B')"
+            + " || setweight(to_tsvector('simple', coalesce(j.description, '')), 'C')";
+
     Page<Job> findByIsDeletedFalse(Pageable pageable);
     List<Job> findByIsDeletedFalse();
+
+    // Chỉ lấy [jobId, title] các job của một công ty cho báo cáo theo job
+    @Query("SELECT j.jobId, j.title FROM Job j WHERE j.companyId = :companyId AND j.isDeleted = false ORDER BY j.createdAt, j.jobId")
+    List<Object[]> findIdAndTitleByCompanyId(@Param("companyId") UUID companyId);
+    // Đọc tuần tự bằng cursor (cần transaction), dùng cho chế độ NDJSON
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Job> streamByIsDeletedFalse();
     List<Job> findByCompanyIdAndIsDeletedFalse(UUID companyId);
     List<Job> findByCityAndIsDeletedFalse(String city);
-    List<Job> findByStatusAndDeadlineBefore(Job.Status status, java.sql.Timestamp deadline);
+
+    // Keyset pagination (createdAt DESC, jobId DESC), không chạy COUNT
+    List<Job> findByIsDeletedFalseOrderByCreatedAtDescJobIdDesc(Pageable pageable);
+    @Query("SELECT j FROM Job j WHERE j.isDeleted = false"
+            + " AND (j.createdAt < :createdAt OR (j.createdAt = :createdAt AND j.jobId < :jobId))"
+            + " ORDER BY j.createdAt DESC, j.jobId DESC")
+    List<Job> findPageAfter(@Param("createdAt") Timestamp createdAt, @Param("jobId") UUID jobId, Pageable pageable);
+
+    // Hạn chót sắp tới cho bộ hẹn giờ đóng job: [jobId, deadline], dùng index (status, deadline)
+    @Query("SELECT j.jobId, j.deadline FROM Job j WHERE j.status = :status AND j.deadline >= :from AND j.deadline < :to")
+    List<Object[]> findDeadlinesBetween(@Param("status") Job.Status status, @Param("from") Timestamp from, @Param("to") Timestamp to);
 
     // Count methods used by stats endpoint
     long countByIsDeletedFalse();
@@ -26,4 +59,30 @@ public interface JobRepository extends JpaRepository<Job, UUID>, JpaSpecificatio
     // Added for reports
     long countByCreatedAtBetween(Timestamp start, Timestamp end);
     long countByStatusAndCreatedAtBetween(Job.Status status, Timestamp start, Timestamp end);
-}
\ No newline at end of file
+
+    // Báo cáo theo công ty (index company_id, created_at)
+    long countByCompanyIdAndStatusAndIsDeletedFalse(UUID companyId, Job.Status status);
+    long countByCompanyIdAndCreatedAtBetween(UUID companyId, Timestamp start, Timestamp end);
+    long countByCompanyIdAndStatusAndCreatedAtBetween(UUID companyId, Job.Status status, Timestamp start, Timestamp end);
+
+    // Công ty còn job đang mở hoặc có job tạo trong khoảng, dùng để chọn công ty cần sinh sẵn báo cáo tháng
+    @Query("SELECT DISTINCT j.companyId FROM Job j WHERE j.companyId IS NOT NULL AND j.isDeleted = false"
+            + " AND (j.status = :status OR j.createdAt BETWEEN :start AND :end)")
+    List<UUID> findCompanyIdsWithStatusOrCreatedBetween(@Param("status") Job.Status status,
+                                                        @Param("start") Timestamp start, @Param("end") Timestamp end);
+
+    // Full-text search index maintenance
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE jobs j SET search_vector = " + SEARCH_VECTOR_EXPR + " WHERE j.job_id = :jobId", nativeQuery = true)
+    int refreshSearchVector(@Param("jobId") UUID jobId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE jobs j SET search_vector = " + SEARCH_VECTOR_EXPR
+            + " WHERE j.job_id IN (SELECT m.job_id FROM job_tag_mapping m WHERE m.job_tag_id = :jobTagId)", nativeQuery = true)
+    int refreshSearchVectorByJobTag(@Param("jobTagId") UUID jobTagId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE jobs j SET search_vector = " + SEARCH_VECTOR_EXPR
+            + " WHERE j.job_id IN (SELECT m.job_id FROM job_group_tag_mapping m WHERE m.group_tag_id = :groupTagId)", nativeQuery = true)
+    int refreshSearchVectorByGroupTag(@Param("groupTagId") UUID groupTagId);
+}
@@ -2,10 +2,18 @@ package com.ptit.recruitservice.repository;
 
 import com.ptit.recruitservice.entity.JobTagMapping;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface JobTagMappingRepository extends JpaRepository<JobTagMapping, UUID> {
     List<JobTagMapping> findByJob_JobId(UUID jobId);
     void deleteByJob_JobId(UUID jobId);
+
+    // Mỗi dòng: [jobId (UUID), JobTag] — dùng để gắn thẻ cho cả trang job trong 1 truy vấn
+    @Query("SELECT m.job.jobId, t FROM JobTagMapping m JOIN m.jobTag t WHERE m.job.jobId IN :jobIds")
+    List<Object[]> findTagsByJobIds(@Param("jobIds") Collection<UUID> jobIds);
 }
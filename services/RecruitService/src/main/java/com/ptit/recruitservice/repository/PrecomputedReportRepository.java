@@ -0,0 +1,13 @@
+package com.ptit.recruitservice.repository;
+
+import com.ptit.recruitservice.entity.PrecomputedReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface PrecomputedReportRepository extends JpaRepository<PrecomputedReport, UUID> {
+    boolean existsByCompanyIdAndStatMonthAndFileFormat(UUID companyId, LocalDate statMonth, String fileFormat);
+
+    boolean existsByObjectName(String objectName);
+}
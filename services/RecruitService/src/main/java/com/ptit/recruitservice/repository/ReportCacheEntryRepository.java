@@ -0,0 +1,8 @@
+package com.ptit.recruitservice.repository;
+
+import com.ptit.recruitservice.entity.ReportCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReportCacheEntryRepository extends JpaRepository<ReportCacheEntry, String> {
+    boolean existsByObjectName(String objectName);
+}
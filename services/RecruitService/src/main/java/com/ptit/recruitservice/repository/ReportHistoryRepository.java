@@ -4,9 +4,52 @@ import com.ptit.recruitservice.entity.ReportHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.UUID;
 
 public interface ReportHistoryRepository extends JpaRepository<ReportHistory, UUID> {
     Page<ReportHistory> findByUserId(UUID userId, Pageable pageable);
+
+    // Đánh dấu thất bại các job xuất báo cáo bị treo (ví dụ instance bị tắt giữa chừng): không còn heartbeat từ trước :before
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportHistory h SET h.status = :failed, h.errorMessage = :message, h.completedAt = :now"
+            + " WHERE h.status IN :statuses AND COALESCE(h.heartbeatAt, h.createdAt) < :before")
+    int failStale(@Param("statuses") Collection<ReportHistory.Status> statuses, @Param("before") Timestamp before,
+                  @Param("failed") ReportHistory.Status failed, @Param("message") String message, @Param("now") Timestamp now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportHistory h SET h.heartbeatAt = :now WHERE h.id IN :ids AND h.status IN :statuses")
+    int heartbeat(@Param("ids") Collection<UUID> ids, @Param("statuses") Collection<ReportHistory.Status> statuses,
+                  @Param("now") Timestamp now);
+
+    // Các bước chuyển trạng thái của worker đều có điều kiện trạng thái hiện tại: bản ghi đã bị xóa
+    // hoặc đã bị đánh dấu thất bại (failStale) thì trả về 0 và worker không ghi đè
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportHistory h SET h.status = :running, h.heartbeatAt = :now WHERE h.id = :id AND h.status = :queued")
+    int markRunning(@Param("id") UUID id, @Param("queued") ReportHistory.Status queued,
+                    @Param("running") ReportHistory.Status running, @Param("now") Timestamp now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportHistory h SET h.status = :done, h.fileUrl = :fileUrl, h.completedAt = :now, h.durationMs = :durationMs"
+            + " WHERE h.id = :id AND h.status = :running")
+    int markDone(@Param("id") UUID id, @Param("running") ReportHistory.Status running, @Param("done") ReportHistory.Status done,
+                 @Param("fileUrl") String fileUrl, @Param("now") Timestamp now, @Param("durationMs") long durationMs);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportHistory h SET h.status = :failed, h.errorMessage = :message, h.completedAt = :now, h.durationMs = :durationMs"
+            + " WHERE h.id = :id AND h.status IN :statuses")
+    int markFailed(@Param("id") UUID id, @Param("statuses") Collection<ReportHistory.Status> statuses,
+                   @Param("failed") ReportHistory.Status failed, @Param("message") String message,
+                   @Param("now") Timestamp now, @Param("durationMs") long durationMs);
 }
@@ -0,0 +1,9 @@
+package com.ptit.recruitservice.repository;
+
+import com.ptit.recruitservice.entity.ReportRollupMonth;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+
+public interface ReportRollupMonthRepository extends JpaRepository<ReportRollupMonth, LocalDate> {
+}
@@ -0,0 +1,37 @@
+package com.ptit.recruitservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public class ApplicationEventListener {
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationService applicationService;
+
+    // Lỗi khi gọi UserService được ném ra để listener thử lại (recruit.application.created.retry.*),
+    // hết lượt thì message vào hàng đợi .dlq
+    @RabbitListener(queues = "#{applicationCreatedQueue.name}", containerFactory = "applicationCreatedListenerFactory")
+    public void handleApplicationCreatedEvent(String message) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(message);
+        } catch (JsonProcessingException e) {
+            throw new AmqpRejectAndDontRequeueException("Sự kiện application.created không hợp lệ", e);
+        }
+        applicationService.handleApplicationCreated(
+                UUID.fromString(event.get("application_id").asText()),
+                UUID.fromString(event.get("job_id").asText()),
+                event.path("job_title").asText(null),
+                UUID.fromString(event.get("company_id").asText()),
+                UUID.fromString(event.get("user_id").asText()));
+    }
+}
@@ -11,16 +11,24 @@ import com.ptit.recruitservice.feign.UserServiceFeign;
 import com.ptit.recruitservice.repository.ApplicationRepository;
 import com.ptit.recruitservice.repository.CVRepository;
 import com.ptit.recruitservice.repository.JobRepository;
+import com.ptit.recruitservice.utils.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Timestamp;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ApplicationService {
+    private static final int BULK_STATUS_MAX_ITEMS = 500;
+
     @Autowired
     private ApplicationRepository applicationRepository;
     @Autowired
@@ -29,6 +37,14 @@ public class ApplicationService {
     private CVRepository cvRepository;
     @Autowired
     private UserServiceFeign userServiceFeign;
+    @Autowired
+    private CompanyResolver companyResolver;
+    @Autowired
+    private ReportRollupService reportRollupService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JobCounterService jobCounterService;
 
     @Value("${internal.secret}")
     private String internalSecret;
@@ -38,7 +54,7 @@ public class ApplicationService {
     }
 
     public CompanyResponse getCompanyByCompanyId(UUID companyId) {
-        return userServiceFeign.getCompanyByCompanyId(companyId, internalSecret);
+        return companyResolver.getByCompanyId(companyId);
     }
 
     @Autowired
@@ -62,6 +78,12 @@ public class ApplicationService {
     @Value("${embedding.exchange}")
     private String embeddingExchange;
 
+    @Value("${recruit.exchange}")
+    private String recruitExchange;
+
+    @Value("${recruit.application.created.routing-key}")
+    private String recruitApplicationCreatedRoutingKey;
+
     @Value("${embedding.application.routing-key}")
     private String embeddingApplicationRoutingKey;
 
@@ -98,29 +120,54 @@ public class ApplicationService {
         if (!cv.getUserId().equals(userId)) {
             throw new BusinessException("Bạn không thể sử dụng CV của người khác để ứng tuyển");
         }
-        Application application = new Application();
-        application.setJob(job);
-        application.setCv(cv);
-        application.setStatus(Application.Status.pending);
-        application.setIsDeleted(false);
-        application.setAppliedAt(new Timestamp(System.currentTimeMillis()));
-        application = applicationRepository.save(application);
+        Application created = new Application();
+        created.setJob(job);
+        created.setCv(cv);
+        created.setStatus(Application.Status.pending);
+        created.setIsDeleted(false);
+        created.setAppliedAt(new Timestamp(System.currentTimeMillis()));
+        // Bộ đếm của job được cập nhật cùng transaction với bản ghi đơn ứng tuyển, số liệu tháng ghi sau khi commit
+        Application application = transactionTemplate.execute(tx -> {
+            Application saved = applicationRepository.save(created);
+            jobCounterService.applicationAdded(job.getJobId(), saved.getStatus());
+            reportRollupService.recordApplication(job, saved.getAppliedAt(), saved.getStatus());
+            return saved;
+        });
+
+        // Đồng bộ DB với RecommendService không cần tra cứu gì nên gửi ngay, không phụ thuộc UserService
+        Map<String, Object> embeddingEvent = new HashMap<>();
+        embeddingEvent.put("application_id", application.getApplicationId());
+        embeddingEvent.put("job_id", job.getJobId());
+        embeddingEvent.put("cv_id", cv.getCvId());
+        embeddingEvent.put("apply_status", application.getStatus().name());
+        eventPublisher.publish(embeddingExchange, embeddingApplicationRoutingKey, embeddingEvent);
+
+        // Tra cứu user / công ty và gửi notification, log do ApplicationEventListener xử lý bất đồng bộ
+        // (handleApplicationCreated)
+        Map<String, Object> event = new HashMap<>();
+        event.put("application_id", application.getApplicationId());
+        event.put("job_id", job.getJobId());
+        event.put("job_title", job.getTitle());
+        event.put("company_id", job.getCompanyId());
+        event.put("user_id", userId);
+        eventPublisher.publish(recruitExchange, recruitApplicationCreatedRoutingKey, event);
+        return toResponse(application);
+    }
 
-        // Đồng bộ DB với RecommendService
-        Map<String, Object> event1 = new HashMap<>();
-        event1.put("application_id", application.getApplicationId());
-        event1.put("job_id", job.getJobId());
-        event1.put("cv_id", cv.getCvId());
-        event1.put("apply_status", application.getStatus().name());
-        eventPublisher.publish(embeddingExchange, embeddingApplicationRoutingKey, event1);
+    /**
+     * Xử lý sự kiện application.created: tra cứu tên / email ứng viên và tên công ty rồi gửi
+     * notification và log. Lỗi tra cứu được ném ra để listener thử lại;
+     * các message chỉ được gửi sau khi tra cứu xong nên lần thử lại không gửi trùng.
+     */
+    public void handleApplicationCreated(UUID applicationId, UUID jobId, String jobTitle, UUID companyId, UUID userId) {
+        UserResponse user = getUserByUserId(userId);
+        CompanyResponse company = getCompanyByCompanyId(companyId);
 
         // Gửi notification sang NotificationService
-        UserResponse user = getUserByUserId(userId);
-        CompanyResponse company = getCompanyByCompanyId(job.getCompanyId());
         Map<String, Object> data = new HashMap<>();
         data.put("name", user.getFullName());
         data.put("email", user.getEmail());
-        data.put("job_title", job.getTitle());
+        data.put("job_title", jobTitle);
         data.put("company_name", company.getCompanyName());
 
         Map<String, Object> event2 = new HashMap<>();
@@ -138,18 +185,28 @@ public class ApplicationService {
                         .actorRole("CANDIDATE")
                         .action("APPLY_JOB")
                         .targetType("JOB")
-                        .targetId(job.getJobId().toString())
-                        .description(String.format("Người dùng %s đã ứng tuyển vào công việc %s tại công ty %s", userId, job.getTitle(), company.getCompanyName()))
+                        .targetId(jobId.toString())
+                        .description(String.format("Người dùng %s đã ứng tuyển vào công việc %s tại công ty %s", userId, jobTitle, company.getCompanyName()))
                         .build()
         );
-        return toResponse(application);
     }
 
     public ApplicationResponse updateStatus(UUID applicationId, Application.Status status, UUID userId) {
-        Application application = applicationRepository.findById(applicationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn ứng tuyển"));
-        application.setStatus(status);
-        application = applicationRepository.save(application);
+        // Trạng thái cũ được đọc sau khi khóa dòng: hai request đổi trạng thái song song không cộng trừ trùng bộ đếm
+        Application application = transactionTemplate.execute(tx -> {
+            applicationRepository.lockById(applicationId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn ứng tuyển"));
+            Application locked = applicationRepository.findWithJobAndCvByApplicationId(applicationId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn ứng tuyển"));
+            Application.Status previous = locked.getStatus();
+            locked.setStatus(status);
+            Application saved = applicationRepository.save(locked);
+            if (!Boolean.TRUE.equals(saved.getIsDeleted())) {
+                jobCounterService.statusChanged(saved.getJob().getJobId(), previous, status);
+            }
+            reportRollupService.recordStatusChange(saved.getJob(), saved.getAppliedAt(), previous, status);
+            return saved;
+        });
 
         // Đồng bộ DB với RecommendService
         Map<String, Object> event1 = new HashMap<>();
@@ -191,11 +248,152 @@ public class ApplicationService {
         return toResponse(application);
     }
 
+    /**
+     * Đổi trạng thái nhiều đơn trong một request: nạp các đơn bằng một truy vấn, cập nhật bằng một câu UPDATE
+     * cho mỗi trạng thái đích, tất cả trong một transaction. Sau khi commit, mỗi ứng viên / công ty chỉ được
+     * tra cứu một lần và đồng bộ RecommendService bằng một message cho cả lô.
+     * Nhà tuyển dụng chỉ được cập nhật đơn thuộc job của công ty mình.
+     */
+    public List<ApplicationResponse> bulkUpdateStatus(List<ApplicationBulkStatusUpdateRequest.Item> items, UUID userId, boolean isAdmin) {
+        if (items == null || items.isEmpty()) {
+            throw new BusinessException("items must be provided");
+        }
+        if (items.size() > BULK_STATUS_MAX_ITEMS) {
+            throw new BusinessException("Chỉ được cập nhật tối đa " + BULK_STATUS_MAX_ITEMS + " đơn ứng tuyển mỗi lần");
+        }
+        // Cùng một đơn xuất hiện nhiều lần thì lấy trạng thái sau cùng
+        Map<UUID, Application.Status> targets = new LinkedHashMap<>();
+        for (ApplicationBulkStatusUpdateRequest.Item item : items) {
+            if (item == null || item.getApplicationId() == null || item.getStatus() == null) {
+                throw new BusinessException("applicationId and status must be provided");
+            }
+            targets.put(item.getApplicationId(), item.getStatus());
+        }
+        UUID companyId = null;
+        if (!isAdmin) {
+            CompanyResponse company = companyResolver.getByUserId(userId);
+            if (company == null || company.getCompanyId() == null) {
+                throw new AccessDeniedException("Bạn không có quyền cập nhật các đơn ứng tuyển này");
+            }
+            companyId = company.getCompanyId();
+        }
+        UUID ownerCompanyId = companyId;
+
+        // Các entity giữ trạng thái cũ (không bị sửa), dùng để tính chênh lệch số liệu và gửi thông báo
+        List<Application> applications = transactionTemplate.execute(tx -> {
+            // Khóa trước khi nạp để trạng thái cũ dùng tính bộ đếm / số liệu là trạng thái mới nhất
+            applicationRepository.lockByIds(targets.keySet());
+            List<Application> found = applicationRepository.findWithJobAndCvByApplicationIdIn(targets.keySet());
+            if (found.size() != targets.size()) {
+                throw new ResourceNotFoundException("Không tìm thấy " + (targets.size() - found.size()) + " đơn ứng tuyển");
+            }
+            for (Application application : found) {
+                if (ownerCompanyId != null && !ownerCompanyId.equals(application.getJob().getCompanyId())) {
+                    throw new AccessDeniedException("Bạn không có quyền cập nhật đơn ứng tuyển " + application.getApplicationId());
+                }
+            }
+            Map<Application.Status, List<UUID>> idsByStatus = new EnumMap<>(Application.Status.class);
+            targets.forEach((id, status) -> idsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(id));
+            idsByStatus.forEach((status, ids) -> applicationRepository.updateStatusByIds(ids, status));
+            jobCounterService.statusChanges(found, targets);
+            // Số liệu báo cáo ghi sau khi commit như các luồng đơn lẻ: lỗi ở đây không làm hỏng transaction cập nhật
+            reportRollupService.recordStatusChanges(found, targets);
+            return found;
+        });
+
+        publishBulkStatusEvents(applications, targets, userId);
+
+        List<ApplicationResponse> responses = new ArrayList<>(applications.size());
+        for (Application application : applications) {
+            ApplicationResponse response = toResponse(application);
+            response.setStatus(targets.get(application.getApplicationId()).name());
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    // Lỗi gửi thông báo không làm hỏng kết quả cập nhật đã commit
+    private void publishBulkStatusEvents(List<Application> applications, Map<UUID, Application.Status> targets, UUID userId) {
+        // Đồng bộ DB với RecommendService: một message cho cả lô
+        List<Map<String, Object>> statusItems = new ArrayList<>(applications.size());
+        for (Application application : applications) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("application_id", application.getApplicationId());
+            item.put("apply_status", targets.get(application.getApplicationId()).name());
+            statusItems.add(item);
+        }
+        Map<String, Object> statusEvent = new HashMap<>();
+        statusEvent.put("items", statusItems);
+        eventPublisher.publish(embeddingExchange, embeddingApplicationStatusRoutingKey, statusEvent);
+
+        try {
+            Map<UUID, UserResponse> users = new HashMap<>();
+            List<UUID> userIds = applications.stream().map(app -> app.getCv().getUserId()).distinct().toList();
+            for (UserResponse user : userServiceFeign.getUsersByIds(userIds, internalSecret)) {
+                users.put(user.getUserId(), user);
+            }
+            Map<UUID, CompanyResponse> companies = companyResolver.getByCompanyIds(
+                    applications.stream().map(app -> app.getJob().getCompanyId()).toList());
+
+            for (Application application : applications) {
+                Application.Status status = targets.get(application.getApplicationId());
+                UserResponse user = users.get(application.getCv().getUserId());
+                CompanyResponse company = companies.get(application.getJob().getCompanyId());
+                String companyName = company != null ? company.getCompanyName() : null;
+
+                // Gửi notification sang NotificationService (mỗi email một người nhận)
+                if (user != null) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("name", user.getFullName());
+                    data.put("email", user.getEmail());
+                    data.put("job_title", application.getJob().getTitle());
+                    data.put("company_name", companyName);
+                    data.put("status", getVietnameseStatusEmail(status));
+
+                    Map<String, Object> event = new HashMap<>();
+                    event.put("event_type", notificationApplicationStatusRoutingKey);
+                    event.put("to", user.getEmail());
+                    event.put("data", data);
+                    eventPublisher.publish(notificationExchange, notificationApplicationStatusRoutingKey, event);
+                }
+
+                // Gửi log sang AdminService (mỗi đơn một bản ghi để giữ lịch sử theo đơn)
+                eventPublisher.publish(
+                        logExchange,
+                        logActivityRoutingKey,
+                        ActivityEvent.builder()
+                                .actorId(userId.toString())
+                                .actorRole("EMPLOYER")
+                                .action("CHANGE_STATUS_APPLICATION")
+                                .targetType("APPLICATION")
+                                .targetId(application.getApplicationId().toString())
+                                .description(String.format("Nhà tuyển dụng %s đã %s CV ứng tuyển công việc %s tại công ty %s của người dùng %s",
+                                        userId, getVietnameseStatusLog(status), application.getJob().getTitle(), companyName, application.getCv().getUserId()))
+                                .build()
+                );
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
     public ApplicationResponse deleteApplication(UUID applicationId, UUID currentUserId) {
-        Application application = applicationRepository.findById(applicationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn ứng tuyển"));
-        application.setIsDeleted(true);
-        application = applicationRepository.save(application);
+        // Khóa dòng rồi mới kiểm tra cờ xóa: đơn đã xóa mềm (kể cả bởi request song song) không bị trừ bộ đếm lần nữa
+        Application application = transactionTemplate.execute(tx -> {
+            applicationRepository.lockById(applicationId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn ứng tuyển"));
+            Application locked = applicationRepository.findById(applicationId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy đơn ứng tuyển"));
+            if (Boolean.TRUE.equals(locked.getIsDeleted())) {
+                return locked;
+            }
+            locked.setIsDeleted(true);
+            Application saved = applicationRepository.save(locked);
+            if (saved.getJob() != null) {
+                jobCounterService.applicationRemoved(saved.getJob().getJobId(), saved.getStatus());
+            }
+            return saved;
+        });
 
         // Đồng bộ DB với RecommendService
         Map<String, Object> event = new HashMap<>();
@@ -220,13 +418,8 @@ public class ApplicationService {
 
     public List<ApplicationResponse> getApplicationsByJobId(UUID jobId) {
 
-        // Lấy toàn bộ application theo job, không deleted
-        List<Application> applications = applicationRepository
-                .findAll()
-                .stream()
-                .filter(app -> app.getJob().getJobId().equals(jobId)
-                        && !Boolean.TRUE.equals(app.getIsDeleted()))
-                .collect(Collectors.toList());
+        // Lấy toàn bộ application theo job, không deleted (truy vấn theo job_id, CV được fetch join)
+        List<Application> applications = applicationRepository.findByJobIdWithCv(jobId);
 
         List<ApplicationResponse> responses = new ArrayList<>();
 
@@ -261,6 +454,56 @@ public class ApplicationService {
         return responses;
     }
 
+    /**
+     * Danh sách ứng viên của một job theo trang cho nhà tuyển dụng, sắp xếp theo appliedAt hoặc status
+     * (kèm applicationId để thứ tự ổn định), lọc trạng thái tùy chọn. CV chỉ gồm thông tin tóm tắt (không có dataJson).
+     * Nhà tuyển dụng chỉ được xem ứng viên của job thuộc công ty mình.
+     */
+    public Page<ApplicationResponse> getApplicationsByJobIdPaged(UUID jobId, Application.Status status, int page, int size,
+                                                                 String sortBy, String direction, UUID userId, boolean isAdmin) {
+        if (!"appliedAt".equals(sortBy) && !"status".equals(sortBy)) {
+            throw new IllegalArgumentException("sort must be appliedAt or status");
+        }
+        if (!isAdmin) {
+            Job job = jobRepository.findById(jobId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy công việc này"));
+            CompanyResponse company = companyResolver.getByUserId(userId);
+            if (company == null || company.getCompanyId() == null || !company.getCompanyId().equals(job.getCompanyId())) {
+                throw new AccessDeniedException("Bạn không có quyền xem danh sách ứng viên của công việc này");
+            }
+        }
+        Sort.Direction dir = "asc".equalsIgnoreCase(direction) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(dir, sortBy);
+        if ("status".equals(sortBy)) {
+            sort = sort.and(Sort.by(Sort.Direction.DESC, "appliedAt"));
+        }
+        Pageable pageable = PageRequest.of(page, size, sort.and(Sort.by(dir, "applicationId")));
+        return applicationRepository.findApplicantSummaries(jobId, status, pageable).map(row -> toApplicantSummary(jobId, row));
+    }
+
+    private ApplicationResponse toApplicantSummary(UUID jobId, Object[] row) {
+        CVDto cvDto = new CVDto();
+        cvDto.setCvId((UUID) row[4]);
+        cvDto.setUserId((UUID) row[5]);
+        cvDto.setSourceType(row[6] != null ? ((CV.SourceType) row[6]).name() : null);
+        cvDto.setTemplateId((UUID) row[7]);
+        cvDto.setFileUrl((String) row[8]);
+        cvDto.setTitle((String) row[9]);
+        cvDto.setStatusEmbedding(row[10] != null ? ((CV.StatusEmbedding) row[10]).name() : null);
+        cvDto.setDeleted(Boolean.TRUE.equals(row[11]));
+        cvDto.setCreatedAt((Timestamp) row[12]);
+
+        ApplicationResponse resp = new ApplicationResponse();
+        resp.setApplicationId((UUID) row[0]);
+        resp.setJobId(jobId);
+        resp.setCvId(cvDto.getCvId());
+        resp.setStatus(row[1] != null ? ((Application.Status) row[1]).name() : null);
+        resp.setDeleted(Boolean.TRUE.equals(row[2]));
+        resp.setAppliedAt((Timestamp) row[3]);
+        resp.setCv(cvDto);
+        return resp;
+    }
+
     public List<ApplicationResponse> getApplicationsByJobIdForCandidate(UUID jobId, UUID currentUserId) {
         List<Application> applications = applicationRepository
                 .findByJob_JobIdAndCv_UserIdAndIsDeletedFalse(jobId, currentUserId);
@@ -301,62 +544,86 @@ public class ApplicationService {
         List<Application> applications = applicationRepository
                 .findByCv_UserIdAndIsDeletedFalse(currentUserId);
 
-        List<ApplicationResponse> responses = new ArrayList<>();
-
-        for (Application app : applications) {
-
-            CVDto cvDto = new CVDto();
-            cvDto.setCvId(app.getCv().getCvId());
-            cvDto.setUserId(app.getCv().getUserId());
-            cvDto.setSourceType(app.getCv().getSourceType() != null ? app.getCv().getSourceType().name() : null);
-            cvDto.setTemplateId(app.getCv().getTemplate() != null ? app.getCv().getTemplate().getTemplateId() : null);
-            cvDto.setDataJson(app.getCv().getDataJson());
-            cvDto.setFileUrl(app.getCv().getFileUrl());
-            cvDto.setTitle(app.getCv().getTitle());
-            cvDto.setStatusEmbedding(app.getCv().getStatusEmbedding() != null ? app.getCv().getStatusEmbedding().name() : null);
-            cvDto.setDeleted(app.getCv().getIsDeleted());
-            cvDto.setCreatedAt(app.getCv().getCreatedAt());
-
-            JobDto jobDto = new JobDto();
-            jobDto.setJobId(app.getJob().getJobId());
-            jobDto.setCompanyId(app.getJob().getCompanyId());
-            jobDto.setTitle(app.getJob().getTitle());
-            jobDto.setDescription(app.getJob().getDescription());
-            jobDto.setMinSalary(app.getJob().getMinSalary());
-            jobDto.setMaxSalary(app.getJob().getMaxSalary());
-            jobDto.setLocation(app.getJob().getLocation());
-            jobDto.setCity(app.getJob().getCity());
-            jobDto.setQuantity(app.getJob().getQuantity());
-            jobDto.setExperience(app.getJob().getExperience());
-            jobDto.setDeadline(app.getJob().getDeadline());
-            jobDto.setJobType(app.getJob().getJobType().name());
-            jobDto.setStatus(app.getJob().getStatus().name());
-            jobDto.setStatusEmbedding(app.getJob().getStatusEmbedding().name());
-            jobDto.setDeleted(Boolean.TRUE.equals(app.getJob().getIsDeleted()));
-            jobDto.setCreatedAt(app.getJob().getCreatedAt());
-            jobDto.setCreatedBy(app.getJob().getCreatedBy());
-            jobDto.setUpdatedBy(app.getJob().getUpdatedBy());
-
-            CompanyResponse company = getCompanyByCompanyId(app.getJob().getCompanyId());
-
-            // Tạo ApplicationResponse
-            ApplicationResponse resp = new ApplicationResponse();
-            resp.setApplicationId(app.getApplicationId());
-            resp.setJobId(app.getJob().getJobId());
-            resp.setCvId(app.getCv().getCvId());
-            resp.setStatus(app.getStatus().name());
-            resp.setDeleted(app.getIsDeleted());
-            resp.setAppliedAt(app.getAppliedAt());
-            resp.setCv(cvDto);
-            resp.setJob(jobDto);
-            resp.setCompany(company);
+        return toCandidateResponses(applications);
+    }
 
-            responses.add(resp);
+    public CursorPageResponse<ApplicationResponse> getApplicationsForCandidateCursor(UUID currentUserId, String after, int size, boolean withTotal) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Application> applications = cursor == null
+                ? applicationRepository.findByCv_UserIdAndIsDeletedFalseOrderByAppliedAtDescApplicationIdDesc(currentUserId, limit)
+                : applicationRepository.findCandidatePageAfter(currentUserId, cursor.getTimestamp(), cursor.getId(), limit);
+        boolean hasNext = applications.size() > size;
+        List<Application> content = hasNext ? applications.subList(0, size) : applications;
+        String nextCursor = null;
+        if (hasNext) {
+            Application last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getAppliedAt(), last.getApplicationId());
         }
+        Long total = withTotal ? applicationRepository.countByCv_UserIdAndIsDeletedFalse(currentUserId) : null;
+        return new CursorPageResponse<>(toCandidateResponses(content), size, nextCursor, hasNext, total);
+    }
 
+    // Lấy thông tin công ty một lần cho cả danh sách (theo số công ty khác nhau, không theo số đơn)
+    private List<ApplicationResponse> toCandidateResponses(List<Application> applications) {
+        Map<UUID, CompanyResponse> companies = companyResolver.getByCompanyIds(
+                applications.stream().map(app -> app.getJob().getCompanyId()).toList());
+        List<ApplicationResponse> responses = new ArrayList<>();
+        for (Application app : applications) {
+            responses.add(toCandidateResponse(app, companies.get(app.getJob().getCompanyId())));
+        }
         return responses;
     }
 
+    private ApplicationResponse toCandidateResponse(Application app, CompanyResponse company) {
+        CVDto cvDto = new CVDto();
+        cvDto.setCvId(app.getCv().getCvId());
+        cvDto.setUserId(app.getCv().getUserId());
+        cvDto.setSourceType(app.getCv().getSourceType() != null ? app.getCv().getSourceType().name() : null);
+        cvDto.setTemplateId(app.getCv().getTemplate() != null ? app.getCv().getTemplate().getTemplateId() : null);
+        cvDto.setDataJson(app.getCv().getDataJson());
+        cvDto.setFileUrl(app.getCv().getFileUrl());
+        cvDto.setTitle(app.getCv().getTitle());
+        cvDto.setStatusEmbedding(app.getCv().getStatusEmbedding() != null ? app.getCv().getStatusEmbedding().name() : null);
+        cvDto.setDeleted(app.getCv().getIsDeleted());
+        cvDto.setCreatedAt(app.getCv().getCreatedAt());
+
+        JobDto jobDto = new JobDto();
+        jobDto.setJobId(app.getJob().getJobId());
+        jobDto.setCompanyId(app.getJob().getCompanyId());
+        jobDto.setTitle(app.getJob().getTitle());
+        jobDto.setDescription(app.getJob().getDescription());
+        jobDto.setMinSalary(app.getJob().getMinSalary());
+        jobDto.setMaxSalary(app.getJob().getMaxSalary());
+        jobDto.setLocation(app.getJob().getLocation());
+        jobDto.setCity(app.getJob().getCity());
+        jobDto.setQuantity(app.getJob().getQuantity());
+        jobDto.setExperience(app.getJob().getExperience());
+        jobDto.setDeadline(app.getJob().getDeadline());
+        jobDto.setJobType(app.getJob().getJobType().name());
+        jobDto.setStatus(app.getJob().getStatus().name());
+        jobDto.setStatusEmbedding(app.getJob().getStatusEmbedding().name());
+        jobDto.setDeleted(Boolean.TRUE.equals(app.getJob().getIsDeleted()));
+        jobDto.setCreatedAt(app.getJob().getCreatedAt());
+        jobDto.setCreatedBy(app.getJob().getCreatedBy());
+        jobDto.setUpdatedBy(app.getJob().getUpdatedBy());
+
+        // Tạo ApplicationResponse
+        ApplicationResponse resp = new ApplicationResponse();
+        resp.setApplicationId(app.getApplicationId());
+        resp.setJobId(app.getJob().getJobId());
+        resp.setCvId(app.getCv().getCvId());
+        resp.setStatus(app.getStatus().name());
+        resp.setDeleted(app.getIsDeleted());
+        resp.setAppliedAt(app.getAppliedAt());
+        resp.setCv(cvDto);
+        resp.setJob(jobDto);
+        resp.setCompany(company);
+
+        return resp;
+    }
+
     private ApplicationResponse toResponse(Application application) {
         ApplicationResponse response = new ApplicationResponse();
         response.setApplicationId(application.getApplicationId());
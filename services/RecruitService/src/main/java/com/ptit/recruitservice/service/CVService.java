@@ -13,9 +13,13 @@ import com.ptit.recruitservice.repository.CVRepository;
 import com.ptit.recruitservice.repository.TemplateRepository;
 import com.ptit.recruitservice.exception.ResourceNotFoundException;
 import com.ptit.recruitservice.exception.BusinessException;
+import com.ptit.recruitservice.utils.KeysetCursor;
+import com.ptit.recruitservice.utils.NdjsonWriter;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -26,22 +30,30 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CVService {
+    private static final int STREAM_BATCH_SIZE = 500;
+
     @Autowired
     private CVRepository cvRepository;
     @Autowired
     private TemplateRepository templateRepository;
     @Autowired
     private ObjectMapper objectMapper;
+    @PersistenceContext
+    private EntityManager entityManager;
     @Autowired
     private MinioClient minioClient;
     @Value("${minio.bucket}")
@@ -350,12 +362,51 @@ public class CVService {
         return cvRepository.findByIsDeletedFalse().stream().map(this::toDto).collect(Collectors.toList());
     }
 
+    /**
+     * Chế độ NDJSON của /cvs/all: đọc qua cursor và ghi từng CV ngay khi đọc,
+     * định kỳ dọn persistence context để dataJson của các CV đã ghi không bị giữ lại trong heap.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllCVs(OutputStream out) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+        int written = 0;
+        try (Stream<CV> cvs = cvRepository.streamByIsDeletedFalse()) {
+            Iterator<CV> it = cvs.iterator();
+            while (it.hasNext()) {
+                writer.write(toDto(it.next()));
+                if (++written % STREAM_BATCH_SIZE == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
     public Page<CVDto> getAllCVsPaged(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return cvRepository.findByIsDeletedFalse(pageable)
                 .map(this::toDto);
     }
 
+    public CursorPageResponse<CVDto> getAllCVsCursor(String after, int size, boolean withTotal) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<CV> cvs = cursor == null
+                ? cvRepository.findByIsDeletedFalseOrderByCreatedAtDescCvIdDesc(limit)
+                : cvRepository.findPageAfter(cursor.getTimestamp(), cursor.getId(), limit);
+        boolean hasNext = cvs.size() > size;
+        List<CV> content = hasNext ? cvs.subList(0, size) : cvs;
+        String nextCursor = null;
+        if (hasNext) {
+            CV last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getCvId());
+        }
+        Long total = withTotal ? cvRepository.countByIsDeletedFalse() : null;
+        return new CursorPageResponse<>(content.stream().map(this::toDto).toList(), size, nextCursor, hasNext, total);
+    }
+
 
     private CVDto toDto(CV cv) {
         CVDto dto = new CVDto();
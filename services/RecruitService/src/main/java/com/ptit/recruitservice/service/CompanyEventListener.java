@@ -0,0 +1,33 @@
+package com.ptit.recruitservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public class CompanyEventListener {
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CompanyResolver companyResolver;
+
+    // Mỗi instance có hàng đợi riêng để tất cả đều xóa cache khi công ty thay đổi
+    @RabbitListener(queues = "#{companyCacheQueue.name}")
+    public void handleCompanyChangedEvent(String message) {
+        try {
+            JsonNode event = objectMapper.readTree(message);
+            if (event.hasNonNull("company_id")) {
+                companyResolver.invalidateCompany(UUID.fromString(event.get("company_id").asText()));
+            }
+            if (event.hasNonNull("user_id")) {
+                companyResolver.invalidateUser(UUID.fromString(event.get("user_id").asText()));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
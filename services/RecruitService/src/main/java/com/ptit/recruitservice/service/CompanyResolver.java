@@ -0,0 +1,192 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.dto.CompanyResponse;
+import com.ptit.recruitservice.exception.ResourceNotFoundException;
+import com.ptit.recruitservice.feign.UserServiceFeign;
+import com.ptit.recruitservice.utils.RequestCollapser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache cục bộ cho thông tin công ty lấy từ UserService (theo userId của nhà tuyển dụng và theo companyId).
+ * Mỗi bản ghi hết hạn sau company.cache.ttl-seconds, số bản ghi bị giới hạn bởi company.cache.max-size (LRU),
+ * và bị xóa ngay khi nhận sự kiện thay đổi công ty (xem CompanyEventListener).
+ * Các lần cache miss theo companyId xảy ra đồng thời được gộp thành một lời gọi POST /companies/by-ids.
+ */
+@Service
+public class CompanyResolver {
+    private final UserServiceFeign userServiceFeign;
+    private final String internalSecret;
+    private final TtlCache byUserId;
+    private final TtlCache byCompanyId;
+    private final Counter hits;
+    private final Counter misses;
+    private final int maxBatchSize;
+    private final RequestCollapser<UUID, CompanyResponse> companyCollapser;
+
+    public CompanyResolver(UserServiceFeign userServiceFeign,
+                           MeterRegistry meterRegistry,
+                           @Value("${internal.secret}") String internalSecret,
+                           @Value("${company.cache.ttl-seconds:600}") long ttlSeconds,
+                           @Value("${company.cache.max-size:10000}") int maxSize,
+                           @Value("${company.batch.window-ms:5}") long batchWindowMillis,
+                           @Value("${company.batch.max-size:200}") int maxBatchSize,
+                           @Value("${company.batch.timeout-ms:10000}") long batchTimeoutMillis,
+                           @Value("${company.batch.max-concurrent:4}") int maxConcurrentBatches) {
+        this.userServiceFeign = userServiceFeign;
+        this.internalSecret = internalSecret;
+        this.byUserId = new TtlCache(ttlSeconds * 1000, maxSize);
+        this.byCompanyId = new TtlCache(ttlSeconds * 1000, maxSize);
+        this.hits = Counter.builder("recruit.company.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("recruit.company.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("recruit.company.cache.size", () -> byUserId.size() + byCompanyId.size()).register(meterRegistry);
+        this.maxBatchSize = maxBatchSize;
+        this.companyCollapser = new RequestCollapser<>("company-batch", this::loadCompanies, batchWindowMillis, maxBatchSize,
+                batchTimeoutMillis, maxConcurrentBatches);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        companyCollapser.shutdown();
+    }
+
+    public CompanyResponse getByUserId(UUID userId) {
+        return resolve(byUserId, userId, id -> userServiceFeign.getCompanyByUserId(id, internalSecret));
+    }
+
+    public CompanyResponse getByCompanyId(UUID companyId) {
+        return resolve(byCompanyId, companyId, id -> {
+            CompanyResponse company = companyCollapser.get(id);
+            if (company == null) {
+                throw new ResourceNotFoundException("Không tìm thấy thông tin công ty: " + id);
+            }
+            return company;
+        });
+    }
+
+    /**
+     * Tra cứu nhiều công ty cho một danh sách: chỉ các id chưa có trong cache mới được gửi đi,
+     * gộp thành các lô tối đa company.batch.max-size. Id không tồn tại sẽ không có trong kết quả.
+     */
+    public Map<UUID, CompanyResponse> getByCompanyIds(Collection<UUID> companyIds) {
+        Map<UUID, CompanyResponse> out = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(companyIds)) {
+            CompanyResponse cached = byCompanyId.get(id);
+            if (cached != null) {
+                hits.increment();
+                out.put(id, cached);
+            } else {
+                misses.increment();
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += maxBatchSize) {
+            Map<UUID, CompanyResponse> loaded = loadCompanies(missing.subList(from, Math.min(from + maxBatchSize, missing.size())));
+            loaded.forEach(byCompanyId::put);
+            out.putAll(loaded);
+        }
+        return out;
+    }
+
+    public void invalidateCompany(UUID companyId) {
+        byCompanyId.remove(companyId);
+        byUserId.removeIf(company -> companyId.equals(company.getCompanyId()));
+    }
+
+    public void invalidateUser(UUID userId) {
+        byUserId.remove(userId);
+    }
+
+    private CompanyResponse resolve(TtlCache cache, UUID key, Function<UUID, CompanyResponse> loader) {
+        CompanyResponse cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        CompanyResponse company = loader.apply(key);
+        if (company != null) {
+            cache.put(key, company);
+            if (cache == byUserId && company.getCompanyId() != null) {
+                byCompanyId.put(company.getCompanyId(), company);
+            }
+        }
+        return company;
+    }
+
+    private Map<UUID, CompanyResponse> loadCompanies(Collection<UUID> companyIds) {
+        Map<UUID, CompanyResponse> out = new HashMap<>();
+        for (CompanyResponse company : userServiceFeign.getCompaniesByIds(new ArrayList<>(companyIds), internalSecret)) {
+            out.put(company.getCompanyId(), company);
+        }
+        return out;
+    }
+
+    private static final class TtlCache {
+        private final long ttlMillis;
+        private final Map<UUID, Entry> entries;
+
+        private record Entry(CompanyResponse value, long expiresAt) {
+        }
+
+        TtlCache(long ttlMillis, int maxSize) {
+            this.ttlMillis = ttlMillis;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized CompanyResponse get(UUID key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(UUID key, CompanyResponse value) {
+            entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+        }
+
+        synchronized void remove(UUID key) {
+            entries.remove(key);
+        }
+
+        synchronized void removeIf(Predicate<CompanyResponse> predicate) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (predicate.test(it.next().value())) {
+                    it.remove();
+                }
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
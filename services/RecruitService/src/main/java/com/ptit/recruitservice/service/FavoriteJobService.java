@@ -8,13 +8,13 @@ import com.ptit.recruitservice.dto.FavoriteJobResponse;
 import com.ptit.recruitservice.entity.FavoriteJob;
 import com.ptit.recruitservice.entity.Job;
 import com.ptit.recruitservice.exception.ResourceNotFoundException;
-import com.ptit.recruitservice.feign.UserServiceFeign;
 import com.ptit.recruitservice.repository.FavoriteJobRepository;
 import com.ptit.recruitservice.repository.JobRepository;
 import org.apache.catalina.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Timestamp;
 import java.util.List;
@@ -29,7 +29,13 @@ public class FavoriteJobService {
     @Autowired
     private JobRepository jobRepository;
     @Autowired
-    private UserServiceFeign userServiceFeign;
+    private CompanyResolver companyResolver;
+    @Autowired
+    private ReportRollupService reportRollupService;
+    @Autowired
+    private JobCounterService jobCounterService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Autowired
     private EventPublisher eventPublisher;
@@ -40,11 +46,8 @@ public class FavoriteJobService {
     @Value("${log.activity.routing-key}")
     private String logActivityRoutingKey;
 
-    @Value("${internal.secret}")
-    private String internalSecret;
-
     public CompanyResponse getCompanyByCompanyId(UUID companyId) {
-        return userServiceFeign.getCompanyByCompanyId(companyId, internalSecret);
+        return companyResolver.getByCompanyId(companyId);
     }
 
     public FavoriteJobResponse addFavorite(FavoriteJobRequest request, UUID currentUserId) {
@@ -53,7 +56,13 @@ public class FavoriteJobService {
         favoriteJob.setUserId(currentUserId);
         favoriteJob.setJob(job);
         favoriteJob.setCreatedAt(new Timestamp(System.currentTimeMillis()));
-        favoriteJob = favoriteJobRepository.save(favoriteJob);
+        FavoriteJob created = favoriteJob;
+        favoriteJob = transactionTemplate.execute(tx -> {
+            FavoriteJob saved = favoriteJobRepository.save(created);
+            jobCounterService.favoriteAdded(job.getJobId());
+            reportRollupService.recordFavorite(job, saved.getCreatedAt(), 1);
+            return saved;
+        });
 
         // Gửi log sang AdminService
         CompanyResponse company = getCompanyByCompanyId(job.getCompanyId());
@@ -74,7 +83,15 @@ public class FavoriteJobService {
     }
 
     public void removeFavorite(UUID favoriteId) {
-        favoriteJobRepository.deleteById(favoriteId);
+        favoriteJobRepository.findWithJobByFavoriteId(favoriteId).ifPresent(favoriteJob -> {
+            transactionTemplate.executeWithoutResult(tx -> {
+                // Chỉ request thực sự xóa được dòng mới trừ bộ đếm và số liệu tháng
+                if (favoriteJobRepository.deleteByFavoriteId(favoriteId) == 1) {
+                    jobCounterService.favoriteRemoved(favoriteJob.getJob().getJobId());
+                    reportRollupService.recordFavorite(favoriteJob.getJob(), favoriteJob.getCreatedAt(), -1);
+                }
+            });
+        });
     }
 
     public List<FavoriteJobResponse> getFavoritesByUser(UUID userId) {
@@ -13,6 +13,7 @@ import com.ptit.recruitservice.repository.JobGroupTagMappingRepository;
 import com.ptit.recruitservice.repository.JobRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +27,8 @@ public class GroupJobTagService {
     private JobGroupTagMappingRepository jobGroupTagMappingRepository;
     @Autowired
     private JobRepository jobRepository;
+    @Autowired
+    private TagDictionaryService tagDictionaryService;
 
     public GroupJobTagDto createGroupJobTag(GroupJobTagUpsertRequest dto) {
         if (dto.getGroupJobName() == null || dto.getGroupJobName().trim().isEmpty()) {
@@ -38,6 +41,7 @@ public class GroupJobTagService {
         entity.setGroupJobName(dto.getGroupJobName());
         entity.setIsDeleted(false);
         entity = groupJobTagRepository.save(entity);
+        tagDictionaryService.invalidate();
         return toDto(entity);
     }
 
@@ -46,9 +50,11 @@ public class GroupJobTagService {
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tên ngành nghề này: " + groupTagId));
         entity.setIsDeleted(true);
         groupJobTagRepository.save(entity);
+        tagDictionaryService.invalidate();
         return toDto(entity);
     }
 
+    @Transactional
     public GroupJobTagDto updateGroupJobTag(UUID groupTagId, GroupJobTagUpsertRequest dto) {
         GroupJobTag entity = groupJobTagRepository.findById(groupTagId)
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tên ngành nghề này: " + groupTagId));
@@ -60,17 +66,20 @@ public class GroupJobTagService {
         }
         entity.setGroupJobName(dto.getGroupJobName());
         groupJobTagRepository.save(entity);
+        tagDictionaryService.invalidate();
+        jobRepository.refreshSearchVectorByGroupTag(groupTagId);
         return toDto(entity);
     }
 
     public List<GroupJobTagDto> getAllGroupJobTags() {
-        return groupJobTagRepository.findByIsDeletedFalse().stream().map(this::toDto).collect(Collectors.toList());
+        return tagDictionaryService.getActiveGroupJobTags().stream().map(this::toDto).collect(Collectors.toList());
     }
 
     public List<JobGroupTagMappingDto> getGroupJobTagsByJob(UUID jobId) {
         return jobGroupTagMappingRepository.findByJob_JobId(jobId).stream().map(this::toMappingDto).collect(Collectors.toList());
     }
 
+    @Transactional
     public JobGroupTagMappingDto addGroupJobTagMapping(JobGroupTagMappingCreateRequest dto) {
         JobGroupTagMapping mapping = new JobGroupTagMapping();
         mapping.setJob(jobRepository.findById(dto.getJobId())
@@ -78,11 +87,16 @@ public class GroupJobTagService {
         mapping.setGroupJobTag(groupJobTagRepository.findById(dto.getGroupTagId())
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tên ngành nghề này: " + dto.getGroupTagId())));
         mapping = jobGroupTagMappingRepository.save(mapping);
+        jobRepository.refreshSearchVector(dto.getJobId());
         return toMappingDto(mapping);
     }
 
+    @Transactional
     public String deleteGroupJobTagMapping(UUID jgTagId) {
-        jobGroupTagMappingRepository.deleteById(jgTagId);
+        jobGroupTagMappingRepository.findById(jgTagId).ifPresent(mapping -> {
+            jobGroupTagMappingRepository.delete(mapping);
+            jobRepository.refreshSearchVector(mapping.getJob().getJobId());
+        });
         return "Xóa mapping thành công";
     }
 
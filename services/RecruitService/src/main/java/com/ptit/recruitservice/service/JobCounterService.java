@@ -0,0 +1,176 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.entity.Application;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bộ đếm phi chuẩn hóa trên bảng jobs: số đơn (applied / pending / approved / rejected) và số lượt yêu thích.
+ * Mỗi thay đổi là một câu UPDATE cộng trừ nguyên tử, chạy trong cùng transaction với thao tác ghi gọi tới nó;
+ * đơn đã xóa mềm không được tính. Đối soát định kỳ tính lại từ applications / favorite_jobs
+ * và chỉ ghi các job bị lệch, mỗi job trong một transaction ngắn.
+ */
+@Service
+public class JobCounterService {
+    private static final String ADD_SQL =
+            "UPDATE jobs SET applied_count = applied_count + ?, pending_count = pending_count + ?,"
+            + " approved_count = approved_count + ?, rejected_count = rejected_count + ?,"
+            + " favorite_count = favorite_count + ? WHERE job_id = ?";
+
+    // Chỉ đọc: các job có bộ đếm khác với dữ liệu gốc (có thể gồm job đang có thao tác ghi dở dang)
+    private static final String DRIFTED_SQL =
+            "WITH a AS (SELECT job_id, COUNT(*) AS applied,"
+            + " COUNT(*) FILTER (WHERE status = 'pending') AS pending,"
+            + " COUNT(*) FILTER (WHERE status = 'approved') AS approved,"
+            + " COUNT(*) FILTER (WHERE status = 'rejected') AS rejected"
+            + " FROM applications WHERE job_id IS NOT NULL AND is_deleted IS NOT TRUE GROUP BY job_id),"
+            + " f AS (SELECT job_id, COUNT(*) AS favorites FROM favorite_jobs WHERE job_id IS NOT NULL GROUP BY job_id),"
+            + " c AS (SELECT j.job_id, COALESCE(a.applied, 0) AS applied, COALESCE(a.pending, 0) AS pending,"
+            + " COALESCE(a.approved, 0) AS approved, COALESCE(a.rejected, 0) AS rejected, COALESCE(f.favorites, 0) AS favorites"
+            + " FROM jobs j LEFT JOIN a ON a.job_id = j.job_id LEFT JOIN f ON f.job_id = j.job_id)"
+            + " SELECT c.job_id FROM c JOIN jobs j ON j.job_id = c.job_id"
+            + " WHERE (j.applied_count, j.pending_count, j.approved_count, j.rejected_count, j.favorite_count)"
+            + " IS DISTINCT FROM (c.applied, c.pending, c.approved, c.rejected, c.favorites)";
+
+    private static final String LOCK_SQL = "SELECT job_id FROM jobs WHERE job_id = ? FOR UPDATE";
+
+    // Chạy sau khi đã khóa dòng job: snapshot của câu lệnh này thấy mọi thay đổi đã commit của job đó
+    private static final String REPAIR_SQL =
+            "UPDATE jobs j SET applied_count = c.applied, pending_count = c.pending, approved_count = c.approved,"
+            + " rejected_count = c.rejected, favorite_count = c.favorites FROM (SELECT COUNT(*) AS applied,"
+            + " COUNT(*) FILTER (WHERE status = 'pending') AS pending,"
+            + " COUNT(*) FILTER (WHERE status = 'approved') AS approved,"
+            + " COUNT(*) FILTER (WHERE status = 'rejected') AS rejected,"
+            + " (SELECT COUNT(*) FROM favorite_jobs WHERE job_id = ?) AS favorites"
+            + " FROM applications WHERE job_id = ? AND is_deleted IS NOT TRUE) c"
+            + " WHERE j.job_id = ? AND (j.applied_count, j.pending_count, j.approved_count, j.rejected_count, j.favorite_count)"
+            + " IS DISTINCT FROM (c.applied, c.pending, c.approved, c.rejected, c.favorites)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter repairedCounter;
+
+    public JobCounterService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.repairedCounter = Counter.builder("recruit.jobs.counters.repaired")
+                .description("Số job có bộ đếm bị lệch được sửa khi đối soát")
+                .register(meterRegistry);
+    }
+
+    public void applicationAdded(UUID jobId, Application.Status status) {
+        add(jobId, 1, status, 1, 0);
+    }
+
+    public void applicationRemoved(UUID jobId, Application.Status status) {
+        add(jobId, -1, status, -1, 0);
+    }
+
+    public void statusChanged(UUID jobId, Application.Status from, Application.Status to) {
+        if (from == to) {
+            return;
+        }
+        long[] d = new long[5];
+        applyStatusDelta(d, from, -1);
+        applyStatusDelta(d, to, 1);
+        jdbcTemplate.update(ADD_SQL, d[0], d[1], d[2], d[3], d[4], jobId);
+    }
+
+    /**
+     * Đổi trạng thái hàng loạt: applications còn mang trạng thái cũ, targets là trạng thái mới theo applicationId.
+     * Chênh lệch được cộng dồn theo job rồi ghi bằng một batch update.
+     */
+    public void statusChanges(Collection<Application> applications, Map<UUID, Application.Status> targets) {
+        Map<UUID, long[]> deltas = new LinkedHashMap<>();
+        for (Application application : applications) {
+            Application.Status to = targets.get(application.getApplicationId());
+            if (to == null || to == application.getStatus() || application.getJob() == null
+                    || Boolean.TRUE.equals(application.getIsDeleted())) {
+                continue;
+            }
+            long[] d = deltas.computeIfAbsent(application.getJob().getJobId(), id -> new long[5]);
+            applyStatusDelta(d, application.getStatus(), -1);
+            applyStatusDelta(d, to, 1);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((jobId, d) -> args.add(new Object[]{d[0], d[1], d[2], d[3], d[4], jobId}));
+        jdbcTemplate.batchUpdate(ADD_SQL, args);
+    }
+
+    public void favoriteAdded(UUID jobId) {
+        jdbcTemplate.update(ADD_SQL, 0, 0, 0, 0, 1, jobId);
+    }
+
+    public void favoriteRemoved(UUID jobId) {
+        jdbcTemplate.update(ADD_SQL, 0, 0, 0, 0, -1, jobId);
+    }
+
+    /**
+     * Tìm các job bị lệch bằng một truy vấn chỉ đọc, sau đó sửa từng job trong transaction riêng:
+     * khóa dòng job trước rồi mới đếm lại, nên một thao tác cộng trừ commit song song không bị ghi đè bằng số cũ.
+     *
+     * @return số job có bộ đếm được sửa
+     */
+    @Scheduled(cron = "${job.counters.reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        int repaired = 0;
+        for (UUID jobId : jdbcTemplate.queryForList(DRIFTED_SQL, UUID.class)) {
+            Integer updated = transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForList(LOCK_SQL, UUID.class, jobId);
+                return jdbcTemplate.update(REPAIR_SQL, jobId, jobId, jobId);
+            });
+            repaired += updated == null ? 0 : updated;
+        }
+        repairedCounter.increment(repaired);
+        return repaired;
+    }
+
+    // Lần đầu chạy sau khi thêm cột, các bộ đếm được dựng từ dữ liệu hiện có
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void add(UUID jobId, int applied, Application.Status status, int sign, int favorites) {
+        long[] d = new long[5];
+        d[0] = applied;
+        applyStatusDelta(d, status, sign);
+        d[4] = favorites;
+        jdbcTemplate.update(ADD_SQL, d[0], d[1], d[2], d[3], d[4], jobId);
+    }
+
+    // d = [applied, pending, approved, rejected, favorites]
+    private static void applyStatusDelta(long[] d, Application.Status status, int sign) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case pending -> d[1] += sign;
+            case approved -> d[2] += sign;
+            case rejected -> d[3] += sign;
+        }
+    }
+}
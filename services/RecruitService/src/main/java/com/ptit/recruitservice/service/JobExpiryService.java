@@ -0,0 +1,199 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.entity.Job;
+import com.ptit.recruitservice.repository.JobRepository;
+import com.ptit.recruitservice.utils.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Đóng các job đang mở đã quá hạn nộp hồ sơ.
+ * Cập nhật hàng loạt theo từng lô (mỗi lô commit riêng) và giữ advisory lock của Postgres
+ * trong suốt lượt quét, nên khi chạy nhiều replica chỉ một instance thực hiện tại một thời điểm.
+ *
+ * Ngoài lượt quét hằng ngày, các hạn chót trong khoảng job.expiry.horizon-ms sắp tới được đưa vào
+ * một TimingWheel (tick job.expiry.tick-ms) để job bị đóng chỉ vài giây sau hạn chót. Wheel được nạp
+ * định kỳ bằng truy vấn theo khoảng (status, deadline) và cập nhật khi job được tạo / sửa.
+ */
+@Service
+public class JobExpiryService {
+    private static final long EXPIRY_LOCK_KEY = 7_310_021_001L;
+
+    private static final String CLOSE_EXPIRED_CHUNK_SQL =
+            "UPDATE jobs SET status = 'closed' WHERE job_id IN ("
+            + "SELECT job_id FROM jobs WHERE status = 'open' AND deadline < ? LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private static final String CLOSE_DUE_SQL =
+            "UPDATE jobs SET status = 'closed' WHERE job_id = ANY(?) AND status = 'open' AND deadline <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRepository jobRepository;
+    private final Counter closedJobsCounter;
+    private final int chunkSize;
+    private final long horizonMillis;
+    private final TimingWheel<UUID> deadlineWheel;
+    private final ExecutorService closer;
+
+    public JobExpiryService(JdbcTemplate jdbcTemplate,
+                            JobRepository jobRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${job.expiry.chunk-size:500}") int chunkSize,
+                            @Value("${job.expiry.tick-ms:1000}") long tickMillis,
+                            @Value("${job.expiry.horizon-ms:3600000}") long horizonMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobRepository = jobRepository;
+        this.chunkSize = chunkSize;
+        this.horizonMillis = horizonMillis;
+        this.closedJobsCounter = Counter.builder("recruit.jobs.expired.closed")
+                .description("Số job bị đóng tự động do quá hạn")
+                .register(meterRegistry);
+        this.closer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "job-expiry-closer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.deadlineWheel = new TimingWheel<>("job-deadline-wheel", tickMillis, (int) (horizonMillis / tickMillis),
+                jobIds -> closer.execute(() -> closeDueJobs(jobIds)));
+        Gauge.builder("recruit.jobs.expiry.scheduled", deadlineWheel, TimingWheel::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineWheel.stop();
+        closer.shutdownNow();
+    }
+
+    // Chạy nền sau khi ứng dụng sẵn sàng, không chặn quá trình khởi động
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void closeExpiredJobsOnStartup() {
+        closeExpiredJobs();
+        refillDeadlines();
+    }
+
+    /**
+     * Nạp các hạn chót sắp tới vào wheel; chạy mỗi nửa horizon nên mọi job mở đều được nạp
+     * trước khi đến hạn ít nhất nửa horizon.
+     */
+    @Scheduled(fixedDelayString = "#{${job.expiry.horizon-ms:3600000} / 2}", initialDelayString = "#{${job.expiry.horizon-ms:3600000} / 2}")
+    public void refillDeadlines() {
+        long now = System.currentTimeMillis();
+        List<Object[]> upcoming = jobRepository.findDeadlinesBetween(Job.Status.open,
+                new Timestamp(now), new Timestamp(now + horizonMillis));
+        for (Object[] row : upcoming) {
+            deadlineWheel.schedule((UUID) row[0], ((Timestamp) row[1]).getTime());
+        }
+    }
+
+    /**
+     * Gọi sau khi job được tạo / sửa / đổi trạng thái. Hạn chót ngoài horizon sẽ do refillDeadlines nạp sau;
+     * job không còn mở thì bị bỏ khỏi wheel.
+     */
+    public void track(Job job) {
+        if (job.getDeadline() == null || job.getStatus() != Job.Status.open || Boolean.TRUE.equals(job.getIsDeleted())) {
+            deadlineWheel.cancel(job.getJobId());
+            return;
+        }
+        long deadline = job.getDeadline().getTime();
+        if (deadline < System.currentTimeMillis() + horizonMillis) {
+            deadlineWheel.schedule(job.getJobId(), deadline);
+        } else {
+            deadlineWheel.cancel(job.getJobId());
+        }
+    }
+
+    @Scheduled(cron = "0 0 0 * * *") // Runs daily at 0:00 AM
+    public void scheduledCloseExpiredJobs() {
+        closeExpiredJobs();
+    }
+
+    /**
+     * @return số job đã đóng; 0 nếu instance khác đang giữ khóa
+     */
+    public int closeExpiredJobs() {
+        Timestamp now = Timestamp.from(Instant.now());
+        Integer closed = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            if (!tryLock(con)) {
+                return 0;
+            }
+            try {
+                return closeInChunks(con, now);
+            } finally {
+                unlock(con);
+            }
+        });
+        int total = closed != null ? closed : 0;
+        closedJobsCounter.increment(total);
+        return total;
+    }
+
+    // Điều kiện status / deadline trong câu lệnh bỏ qua các mốc cũ (job đã bị gia hạn hoặc đóng tay)
+    private void closeDueJobs(List<UUID> jobIds) {
+        try {
+            int closed = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+                try (PreparedStatement ps = con.prepareStatement(CLOSE_DUE_SQL)) {
+                    ps.setArray(1, con.createArrayOf("uuid", jobIds.toArray()));
+                    ps.setTimestamp(2, Timestamp.from(Instant.now()));
+                    return ps.executeUpdate();
+                }
+            });
+            closedJobsCounter.increment(closed);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private int closeInChunks(Connection con, Timestamp now) throws SQLException {
+        int total = 0;
+        try (PreparedStatement ps = con.prepareStatement(CLOSE_EXPIRED_CHUNK_SQL)) {
+            int updated;
+            do {
+                ps.setTimestamp(1, now);
+                ps.setInt(2, chunkSize);
+                updated = ps.executeUpdate();
+                if (!con.getAutoCommit()) {
+                    con.commit();
+                }
+                total += updated;
+            } while (updated == chunkSize);
+        }
+        return total;
+    }
+
+    private boolean tryLock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, EXPIRY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, EXPIRY_LOCK_KEY);
+            ps.execute();
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.ptit.recruitservice.service;
 import com.ptit.recruitservice.config.EventPublisher;
 import com.ptit.recruitservice.dto.*;
 import com.ptit.recruitservice.entity.*;
-import com.ptit.recruitservice.feign.UserServiceFeign;
 import com.ptit.recruitservice.repository.JobRepository;
 import com.ptit.recruitservice.repository.JobTagMappingRepository;
 import com.ptit.recruitservice.repository.JobGroupTagMappingRepository;
@@ -11,24 +10,38 @@ import com.ptit.recruitservice.repository.JobTagRepository;
 import com.ptit.recruitservice.repository.GroupJobTagRepository;
 import com.ptit.recruitservice.exception.ResourceNotFoundException;
 import com.ptit.recruitservice.exception.BusinessException;
-import jakarta.annotation.PostConstruct;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ptit.recruitservice.utils.KeysetCursor;
+import com.ptit.recruitservice.utils.NdjsonWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Timestamp;
-import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class JobService {
@@ -43,12 +56,25 @@ public class JobService {
     @Autowired
     private GroupJobTagRepository groupJobTagRepository;
     @Autowired
-    private UserServiceFeign externalUserServiceFeignClient;
+    private TagDictionaryService tagDictionaryService;
+    @Autowired
+    private CompanyResolver companyResolver;
+    @Autowired
+    private JobExpiryService jobExpiryService;
     @Autowired
     private EventPublisher eventPublisher;
 
-    @Value("${internal.secret}")
-    private String internalSecret;
+    private static final int TAG_BATCH_SIZE = 1000;
+
+    // Khoảng lương cho facet, đơn vị triệu đồng như tham số minSalary / maxSalary; null = không giới hạn trên
+    private static final Integer[][] SALARY_BUCKETS = {{0, 10}, {10, 20}, {20, 30}, {30, 50}, {50, null}};
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Value("${log.exchange}")
     private String logExchange;
@@ -66,11 +92,11 @@ public class JobService {
     private String deleteJDRoutingKey;
 
     public CompanyResponse getCompanyByUserId(UUID userId) {
-        return externalUserServiceFeignClient.getCompanyByUserId(userId, internalSecret);
+        return companyResolver.getByUserId(userId);
     }
 
     public CompanyResponse getCompanyByCompanyId(UUID companyId) {
-        return externalUserServiceFeignClient.getCompanyByCompanyId(companyId, internalSecret);
+        return companyResolver.getByCompanyId(companyId);
     }
 
     private String buildRawTextFromJD(Job job) {
@@ -110,28 +136,28 @@ public class JobService {
         final Job savedJob = job;
         // Bulk map JobTag
         if (request.getJobTagIds() != null && !request.getJobTagIds().isEmpty()) {
-            List<JobTagMapping> jobTagMappings = request.getJobTagIds().stream()
-                .map(tagId -> {
+            List<JobTagMapping> jobTagMappings = tagDictionaryService.requireJobTags(request.getJobTagIds()).stream()
+                .map(tag -> {
                     JobTagMapping mapping = new JobTagMapping();
                     mapping.setJob(savedJob);
-                    mapping.setJobTag(jobTagRepository.findById(tagId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thẻ công việc này" + tagId)));
+                    mapping.setJobTag(tag);
                     return mapping;
                 }).collect(Collectors.toList());
             jobTagMappingRepository.saveAll(jobTagMappings);
         }
         // Bulk map GroupJobTag
         if (request.getGroupTagIds() != null && !request.getGroupTagIds().isEmpty()) {
-            List<JobGroupTagMapping> groupTagMappings = request.getGroupTagIds().stream()
-                .map(groupTagId -> {
+            List<JobGroupTagMapping> groupTagMappings = tagDictionaryService.requireGroupJobTags(request.getGroupTagIds()).stream()
+                .map(groupTag -> {
                     JobGroupTagMapping mapping = new JobGroupTagMapping();
                     mapping.setJob(savedJob);
-                    mapping.setGroupJobTag(groupJobTagRepository.findById(groupTagId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tên ngành nghề: " + groupTagId)));
+                    mapping.setGroupJobTag(groupTag);
                     return mapping;
                 }).collect(Collectors.toList());
             jobGroupTagMappingRepository.saveAll(groupTagMappings);
         }
+        jobRepository.refreshSearchVector(savedJob.getJobId());
+        jobExpiryService.track(savedJob);
 
         // Gửi sang RecommendService để embedding
         Map<String, Object> event1 = new HashMap<>();
@@ -182,28 +208,28 @@ public class JobService {
         final Job savedJob = job;
         // Bulk map JobTag
         if (request.getJobTagIds() != null && !request.getJobTagIds().isEmpty()) {
-            List<JobTagMapping> jobTagMappings = request.getJobTagIds().stream()
-                    .map(tagId -> {
+            List<JobTagMapping> jobTagMappings = tagDictionaryService.requireJobTags(request.getJobTagIds()).stream()
+                    .map(tag -> {
                         JobTagMapping mapping = new JobTagMapping();
                         mapping.setJob(savedJob);
-                        mapping.setJobTag(jobTagRepository.findById(tagId)
-                                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thẻ công việc này" + tagId)));
+                        mapping.setJobTag(tag);
                         return mapping;
                     }).collect(Collectors.toList());
             jobTagMappingRepository.saveAll(jobTagMappings);
         }
         // Bulk map GroupJobTag
         if (request.getGroupTagIds() != null && !request.getGroupTagIds().isEmpty()) {
-            List<JobGroupTagMapping> groupTagMappings = request.getGroupTagIds().stream()
-                    .map(groupTagId -> {
+            List<JobGroupTagMapping> groupTagMappings = tagDictionaryService.requireGroupJobTags(request.getGroupTagIds()).stream()
+                    .map(groupTag -> {
                         JobGroupTagMapping mapping = new JobGroupTagMapping();
                         mapping.setJob(savedJob);
-                        mapping.setGroupJobTag(groupJobTagRepository.findById(groupTagId)
-                                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tên ngành nghề: " + groupTagId)));
+                        mapping.setGroupJobTag(groupTag);
                         return mapping;
                     }).collect(Collectors.toList());
             jobGroupTagMappingRepository.saveAll(groupTagMappings);
         }
+        jobRepository.refreshSearchVector(savedJob.getJobId());
+        jobExpiryService.track(savedJob);
 
         // Gửi sang RecommendService để embedding
         Map<String, Object> event1 = new HashMap<>();
@@ -238,31 +264,16 @@ public class JobService {
         List<GroupJobTag> groupJobTags = groupJobTagRepository.findAllByJobId(jobId);
 
         JobDto dto = toDto(job);
-        dto.setJobTags(
-                jobTags.stream().map(t -> {
-                    JobTagDto tagDto = new JobTagDto();
-                    tagDto.setJobTagId(t.getJobTagId());
-                    tagDto.setJobName(t.getJobName());
-                    tagDto.setIsDeleted(t.getIsDeleted());
-                    return tagDto;
-                }).toList()
-        );
-        dto.setGroupJobTags(
-                groupJobTags.stream().map(t -> {
-                   GroupJobTagDto groupJobTagDto = new GroupJobTagDto();
-                    groupJobTagDto.setGroupTagId(t.getGroupTagId());
-                    groupJobTagDto.setGroupJobName(t.getGroupJobName());
-                    groupJobTagDto.setIsDeleted(t.getIsDeleted());
-                    return groupJobTagDto;
-                }).toList()
-        );
+        dto.setJobTags(jobTags.stream().map(this::toTagDto).toList());
+        dto.setGroupJobTags(groupJobTags.stream().map(this::toGroupTagDto).toList());
 
         return dto;
     }
 
     @Transactional
     public JobDto updateJob(UUID jobId, JobUpdateRequest request, UUID currentUserId) {
-        UUID companyId = getCompanyByUserId(currentUserId).getCompanyId();
+        CompanyResponse company = getCompanyByUserId(currentUserId);
+        UUID companyId = company.getCompanyId();
         Job job = jobRepository.findById(jobId)
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy công việc: " + jobId));
         if(!job.getCompanyId().equals(companyId)) {
@@ -293,28 +304,28 @@ public class JobService {
         jobGroupTagMappingRepository.deleteByJob_JobId(jobId);
         // Bulk add new JobTag mappings
         if (request.getJobTagIds() != null && !request.getJobTagIds().isEmpty()) {
-            List<JobTagMapping> jobTagMappings = request.getJobTagIds().stream()
-                .map(tagId -> {
+            List<JobTagMapping> jobTagMappings = tagDictionaryService.requireJobTags(request.getJobTagIds()).stream()
+                .map(tag -> {
                     JobTagMapping mapping = new JobTagMapping();
                     mapping.setJob(savedJob);
-                    mapping.setJobTag(jobTagRepository.findById(tagId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thẻ công việc này" + tagId)));
+                    mapping.setJobTag(tag);
                     return mapping;
                 }).collect(Collectors.toList());
             jobTagMappingRepository.saveAll(jobTagMappings);
         }
         // Bulk add new GroupJobTag mappings
         if (request.getGroupTagIds() != null && !request.getGroupTagIds().isEmpty()) {
-            List<JobGroupTagMapping> groupTagMappings = request.getGroupTagIds().stream()
-                .map(groupTagId -> {
+            List<JobGroupTagMapping> groupTagMappings = tagDictionaryService.requireGroupJobTags(request.getGroupTagIds()).stream()
+                .map(groupTag -> {
                     JobGroupTagMapping mapping = new JobGroupTagMapping();
                     mapping.setJob(savedJob);
-                    mapping.setGroupJobTag(groupJobTagRepository.findById(groupTagId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tên ngành nghề: " + groupTagId)));
+                    mapping.setGroupJobTag(groupTag);
                     return mapping;
                 }).collect(Collectors.toList());
             jobGroupTagMappingRepository.saveAll(groupTagMappings);
         }
+        jobRepository.refreshSearchVector(savedJob.getJobId());
+        jobExpiryService.track(savedJob);
 
         // Gửi sang RecommendService để embedding
         Map<String, Object> event1 = new HashMap<>();
@@ -324,7 +335,6 @@ public class JobService {
         eventPublisher.publish(embeddingExchange, embeddingJDRoutingKey, event1);
 
         // Gửi log sang AdminService
-        CompanyResponse company = getCompanyByUserId(currentUserId);
         eventPublisher.publish(
                 logExchange,
                 logActivityRoutingKey,
@@ -375,28 +385,28 @@ public class JobService {
         jobGroupTagMappingRepository.deleteByJob_JobId(jobId);
         // Bulk add new JobTag mappings
         if (request.getJobTagIds() != null && !request.getJobTagIds().isEmpty()) {
-            List<JobTagMapping> jobTagMappings = request.getJobTagIds().stream()
-                    .map(tagId -> {
+            List<JobTagMapping> jobTagMappings = tagDictionaryService.requireJobTags(request.getJobTagIds()).stream()
+                    .map(tag -> {
                         JobTagMapping mapping = new JobTagMapping();
                         mapping.setJob(savedJob);
-                        mapping.setJobTag(jobTagRepository.findById(tagId)
-                                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thẻ công việc này" + tagId)));
+                        mapping.setJobTag(tag);
                         return mapping;
                     }).collect(Collectors.toList());
             jobTagMappingRepository.saveAll(jobTagMappings);
         }
         // Bulk add new GroupJobTag mappings
         if (request.getGroupTagIds() != null && !request.getGroupTagIds().isEmpty()) {
-            List<JobGroupTagMapping> groupTagMappings = request.getGroupTagIds().stream()
-                    .map(groupTagId -> {
+            List<JobGroupTagMapping> groupTagMappings = tagDictionaryService.requireGroupJobTags(request.getGroupTagIds()).stream()
+                    .map(groupTag -> {
                         JobGroupTagMapping mapping = new JobGroupTagMapping();
                         mapping.setJob(savedJob);
-                        mapping.setGroupJobTag(groupJobTagRepository.findById(groupTagId)
-                                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tên ngành nghề: " + groupTagId)));
+                        mapping.setGroupJobTag(groupTag);
                         return mapping;
                     }).collect(Collectors.toList());
             jobGroupTagMappingRepository.saveAll(groupTagMappings);
         }
+        jobRepository.refreshSearchVector(savedJob.getJobId());
+        jobExpiryService.track(savedJob);
 
         // Gửi sang RecommendService để embedding
         Map<String, Object> event1 = new HashMap<>();
@@ -428,6 +438,7 @@ public class JobService {
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy công việc: " + jobId));
         job.setIsDeleted(true);
         job = jobRepository.save(job);
+        jobExpiryService.track(job);
 
         // Gửi sang RecommendService để xóa embedding
         Map<String, Object> event1 = new HashMap<>();
@@ -465,12 +476,36 @@ public class JobService {
     }
 
     public List<JobDto> getAllJobs() {
-        return jobRepository.findByIsDeletedFalse().stream().map(this::toDto).collect(Collectors.toList());
+        return toDtosWithTags(jobRepository.findByIsDeletedFalse());
+    }
+    /**
+     * Chế độ NDJSON của /jobs/all: đọc qua cursor, mỗi lô STREAM_BATCH_SIZE job được gắn thẻ
+     * (2 truy vấn), ghi ra rồi bỏ khỏi persistence context, nên bộ nhớ không phụ thuộc số job.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllJobs(OutputStream out) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+        List<Job> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        try (Stream<Job> jobs = jobRepository.streamByIsDeletedFalse()) {
+            Iterator<Job> it = jobs.iterator();
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() == STREAM_BATCH_SIZE || !it.hasNext()) {
+                    for (JobDto dto : toDtosWithTags(batch)) {
+                        writer.write(dto);
+                    }
+                    writer.flush();
+                    batch.clear();
+                    entityManager.clear();
+                }
+            }
+        }
     }
+
     public Page<JobDto> getJobsPaged(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return jobRepository.findByIsDeletedFalse(pageable)
-                .map(this::toDto);
+        Page<Job> jobPage = jobRepository.findByIsDeletedFalse(pageable);
+        return new PageImpl<>(toDtosWithTags(jobPage.getContent()), pageable, jobPage.getTotalElements());
     }
     public List<JobDto> filterJobs(
             String keyword,
@@ -491,12 +526,11 @@ public class JobService {
             // 🔹 Chỉ lấy job mở (open)
             predicates.add(cb.equal(root.get("status"), Job.Status.open));
 
-            // 🔹 Từ khóa (tên công việc)
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                predicates.add(cb.like(
-                        cb.lower(root.get("title")),
-                        "%" + keyword.toLowerCase() + "%"
-                ));
+            // 🔹 Từ khóa (full-text: tiêu đề, thẻ, ngành nghề, mô tả)
+            String tsQuery = toPrefixTsQuery(keyword);
+            if (tsQuery != null) {
+                predicates.add(fullTextMatch(root, cb, tsQuery));
+                orderByRelevance(root, query, cb, tsQuery);
             }
 
             // 🔹 Location (tỉnh/thành hoặc city)
@@ -514,20 +548,12 @@ public class JobService {
             }
             // 🔹 Industry (groupJobName)
             if (industry != null && !industry.isEmpty()) {
-                Join<Object, Object> groupJoin = root.join("jobGroupTagMappings", JoinType.LEFT)
-                        .join("groupJobTag", JoinType.LEFT);
-                predicates.add(cb.lower(groupJoin.get("groupJobName")).in(
-                        industry.stream().map(String::toLowerCase).toList()
-                ));
+                predicates.add(hasGroupTag(root, query, cb, industry));
             }
 
             // 🔹 Tags (jobName)
             if (tags != null && !tags.isEmpty()) {
-                Join<Object, Object> tagJoin = root.join("jobTagMappings", JoinType.LEFT)
-                        .join("jobTag", JoinType.LEFT);
-                predicates.add(cb.lower(tagJoin.get("jobName")).in(
-                        tags.stream().map(String::toLowerCase).toList()
-                ));
+                predicates.add(hasJobTag(root, query, cb, tags));
             }
 
             // 🔹 Type (full_time, part_time,...)
@@ -551,11 +577,10 @@ public class JobService {
                 predicates.add(cb.lessThanOrEqualTo(root.get("minSalary"), max));
             }
 
-            query.distinct(true);
             return cb.and(predicates.toArray(new Predicate[0]));
         });
 
-        return jobs.stream().map(this::toDto).collect(Collectors.toList());
+        return toDtosWithTags(jobs);
     }
     public PaginatedResponse<JobDto> filterJobsPaged(
             String keyword,
@@ -571,15 +596,216 @@ public class JobService {
     ) {
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Job> jobPage = jobRepository.findAll((root, query, cb) -> {
+        Page<Job> jobPage = jobRepository.findAll(
+                buildFilterSpec(keyword, location, industry, tags, type, minSalary, maxSalary, experience),
+                pageable);
+
+        List<JobDto> jobDtos = toDtosWithTags(jobPage.getContent());
+
+        return new PaginatedResponse<>(
+                jobDtos,
+                page,
+                size,
+                jobPage.getTotalElements(),
+                jobPage.getTotalPages()
+        );
+    }
+
+    /**
+     * Facets mode của filterJobsPaged: trả về trang kết quả kèm số lượng theo ngành nghề, thẻ, thành phố,
+     * loại hình, kinh nghiệm và khoảng lương của toàn bộ kết quả lọc, để trang tìm kiếm chỉ cần một request.
+     * Số lượng được đếm trong DB bằng các truy vấn GROUP BY trên cùng điều kiện lọc.
+     */
+    public FacetedPaginatedResponse<JobDto> filterJobsPagedWithFacets(
+            String keyword,
+            String location,
+            List<String> industry,
+            List<String> tags,
+            String type,
+            Integer minSalary,
+            Integer maxSalary,
+            String experience,
+            int page,
+            int size
+    ) {
+        PaginatedResponse<JobDto> result = filterJobsPaged(keyword, location, industry, tags, type, minSalary, maxSalary, experience, page, size);
+        JobFacetsDto facets = computeFacets(buildFilterSpec(keyword, location, industry, tags, type, minSalary, maxSalary, experience));
+        return new FacetedPaginatedResponse<>(result.getData(), result.getCurrentPage(), result.getPageSize(),
+                result.getTotalItems(), result.getTotalPages(), facets);
+    }
+
+    // Mỗi nhóm facet là một truy vấn GROUP BY / SUM trong DB trên cùng điều kiện lọc,
+    // JVM chỉ nhận về các cặp (giá trị, số lượng) chứ không đọc từng job khớp bộ lọc
+    private JobFacetsDto computeFacets(Specification<Job> filter) {
+        JobFacetsDto facets = new JobFacetsDto();
+        countByColumn(filter, "city", facets.getCities());
+        countByColumn(filter, "jobType", facets.getJobTypes());
+        countByColumn(filter, "experience", facets.getExperiences());
+        countByTag(filter, JobTagMapping.class, "jobTag", "jobName", facets.getTags());
+        countByTag(filter, JobGroupTagMapping.class, "groupJobTag", "groupJobName", facets.getIndustries());
+        countSalaryBuckets(filter, facets.getSalaryRanges());
+        return facets;
+    }
+
+    private void countByColumn(Specification<Job> filter, String attribute, Map<String, Long> counts) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Job> root = query.from(Job.class);
+        Path<Object> value = root.get(attribute);
+        Expression<Long> count = cb.count(root);
+        query.multiselect(value, count)
+                .where(filter.toPredicate(root, query, cb))
+                .groupBy(value)
+                .orderBy(cb.desc(count));
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            Object key = row.get(0);
+            increment(counts, key instanceof Enum<?> e ? e.name() : (String) key, row.get(1, Long.class));
+        }
+    }
+
+    // Đếm theo tên thẻ qua bảng mapping (job_tag_mapping / job_group_tag_mapping) nối với các job khớp bộ lọc
+    private void countByTag(Specification<Job> filter, Class<?> mappingClass, String tagAttribute, String nameAttribute,
+                            Map<String, Long> counts) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Job> root = query.from(Job.class);
+        Root<?> mapping = query.from(mappingClass);
+        Path<String> name = mapping.get(tagAttribute).get(nameAttribute);
+        Expression<Long> count = cb.count(mapping);
+        query.multiselect(name, count)
+                .where(cb.equal(mapping.get("job"), root), filter.toPredicate(root, query, cb))
+                .groupBy(name)
+                .orderBy(cb.desc(count));
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            increment(counts, row.get(0, String.class), row.get(1, Long.class));
+        }
+    }
+
+    // Giá trị được trim nên các biến thể khoảng trắng của cùng một giá trị được cộng chung
+    private static void increment(Map<String, Long> counts, String key, long count) {
+        if (key != null && !key.trim().isEmpty()) {
+            counts.merge(key.trim(), count, Long::sum);
+        }
+    }
+
+    /**
+     * Một job được đếm vào mọi khoảng mà khoảng lương của nó giao với, giống điều kiện lọc minSalary / maxSalary;
+     * job không có cả min lẫn max lương được đếm là "negotiable". Tất cả các khoảng được tính trong một truy vấn.
+     */
+    private void countSalaryBuckets(Specification<Job> filter, Map<String, Long> counts) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Job> root = query.from(Job.class);
+        Path<Integer> jobMin = root.get("minSalary");
+        Path<Integer> jobMax = root.get("maxSalary");
+        Predicate negotiable = cb.and(cb.isNull(jobMin), cb.isNull(jobMax));
+
+        List<String> labels = new ArrayList<>();
+        List<Selection<?>> sums = new ArrayList<>();
+        for (Integer[] bucket : SALARY_BUCKETS) {
+            int lo = bucket[0] * 1_000_000;
+            Predicate overlaps = cb.and(cb.not(negotiable), cb.or(cb.isNull(jobMax), cb.ge(jobMax, lo)));
+            if (bucket[1] != null) {
+                overlaps = cb.and(overlaps, cb.or(cb.isNull(jobMin), cb.le(jobMin, bucket[1] * 1_000_000)));
+            }
+            labels.add(bucket[1] == null ? bucket[0] + "+" : bucket[0] + "-" + bucket[1]);
+            sums.add(countWhere(cb, overlaps));
+        }
+        labels.add("negotiable");
+        sums.add(countWhere(cb, negotiable));
+        query.multiselect(sums).where(filter.toPredicate(root, query, cb));
+
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        for (int i = 0; i < labels.size(); i++) {
+            Long count = row.get(i, Long.class);
+            if (count != null && count > 0) {
+                counts.put(labels.get(i), count);
+            }
+        }
+    }
+
+    private static Expression<Long> countWhere(CriteriaBuilder cb, Predicate predicate) {
+        return cb.sum(cb.<Long>selectCase().when(predicate, 1L).otherwise(0L));
+    }
+
+    /**
+     * Cursor mode của filterJobsPaged: sắp xếp (createdAt, jobId) giảm dần, không OFFSET
+     * và chỉ COUNT khi withTotal = true. Ở mode này kết quả không xếp theo độ liên quan.
+     */
+    public CursorPageResponse<JobDto> filterJobsCursor(
+            String keyword,
+            String location,
+            List<String> industry,
+            List<String> tags,
+            String type,
+            Integer minSalary,
+            Integer maxSalary,
+            String experience,
+            String after,
+            int size,
+            boolean withTotal
+    ) {
+        KeysetCursor.checkPageSize(size);
+        Specification<Job> filter = buildFilterSpec(keyword, location, industry, tags, type, minSalary, maxSalary, experience);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Specification<Job> spec = cursor == null ? filter : filter.and((root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.getTimestamp()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), cursor.getTimestamp()),
+                        cb.lessThan(root.<UUID>get("jobId"), cursor.getId())
+                )
+        ));
+        List<Job> jobs = jobRepository.findBy(spec, q -> q
+                .sortBy(Sort.by(Sort.Direction.DESC, "createdAt", "jobId"))
+                .limit(size + 1)
+                .all());
+        Long total = withTotal ? jobRepository.count(filter) : null;
+        return toCursorPage(jobs, size, total);
+    }
+
+    public CursorPageResponse<JobDto> getJobsCursor(String after, int size, boolean withTotal) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Job> jobs = cursor == null
+                ? jobRepository.findByIsDeletedFalseOrderByCreatedAtDescJobIdDesc(limit)
+                : jobRepository.findPageAfter(cursor.getTimestamp(), cursor.getId(), limit);
+        Long total = withTotal ? jobRepository.countByIsDeletedFalse() : null;
+        return toCursorPage(jobs, size, total);
+    }
+
+    // jobs được đọc dư 1 bản ghi (size + 1) để biết còn trang sau hay không
+    private CursorPageResponse<JobDto> toCursorPage(List<Job> jobs, int size, Long total) {
+        boolean hasNext = jobs.size() > size;
+        List<Job> content = hasNext ? jobs.subList(0, size) : jobs;
+        String nextCursor = null;
+        if (hasNext) {
+            Job last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getJobId());
+        }
+        return new CursorPageResponse<>(toDtosWithTags(content), size, nextCursor, hasNext, total);
+    }
+
+    private Specification<Job> buildFilterSpec(
+            String keyword,
+            String location,
+            List<String> industry,
+            List<String> tags,
+            String type,
+            Integer minSalary,
+            Integer maxSalary,
+            String experience
+    ) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             predicates.add(cb.isFalse(root.get("isDeleted")));
             predicates.add(cb.equal(root.get("status"), Job.Status.open));
 
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                predicates.add(cb.like(cb.lower(root.get("title")),
-                        "%" + keyword.toLowerCase() + "%"));
+            String tsQuery = toPrefixTsQuery(keyword);
+            if (tsQuery != null) {
+                predicates.add(fullTextMatch(root, cb, tsQuery));
+                orderByRelevance(root, query, cb, tsQuery);
             }
 
             if (location != null && !location.trim().isEmpty()) {
@@ -593,17 +819,11 @@ public class JobService {
             }
 
             if (industry != null && !industry.isEmpty()) {
-                Join<Object, Object> groupJoin = root.join("jobGroupTagMappings", JoinType.LEFT)
-                        .join("groupJobTag", JoinType.LEFT);
-                predicates.add(cb.lower(groupJoin.get("groupJobName"))
-                        .in(industry.stream().map(String::toLowerCase).toList()));
+                predicates.add(hasGroupTag(root, query, cb, industry));
             }
 
             if (tags != null && !tags.isEmpty()) {
-                Join<Object, Object> tagJoin = root.join("jobTagMappings", JoinType.LEFT)
-                        .join("jobTag", JoinType.LEFT);
-                predicates.add(cb.lower(tagJoin.get("jobName"))
-                        .in(tags.stream().map(String::toLowerCase).toList()));
+                predicates.add(hasJobTag(root, query, cb, tags));
             }
 
             if (type != null && !type.isEmpty()) {
@@ -625,29 +845,16 @@ public class JobService {
                 predicates.add(cb.lessThanOrEqualTo(root.get("minSalary"), max));
             }
 
-            query.distinct(true);
             return cb.and(predicates.toArray(new Predicate[0]));
-        }, pageable);
-
-        List<JobDto> jobDtos = jobPage.getContent()
-                .stream()
-                .map(this::toDto)
-                .toList();
-
-        return new PaginatedResponse<>(
-                jobDtos,
-                page,
-                size,
-                jobPage.getTotalElements(),
-                jobPage.getTotalPages()
-        );
+        };
     }
+
     public List<JobDto> getAllJobsByCompany(UUID companyId) {
-        return jobRepository.findByCompanyIdAndIsDeletedFalse(companyId).stream().map(this::toDto).collect(Collectors.toList());
+        return toDtosWithTags(jobRepository.findByCompanyIdAndIsDeletedFalse(companyId));
     }
 
     public List<JobDto> getAllJobsByCity(String city) {
-        return jobRepository.findByCityAndIsDeletedFalse(city).stream().map(this::toDto).collect(Collectors.toList());
+        return toDtosWithTags(jobRepository.findByCityAndIsDeletedFalse(city));
     }
     public List<JobDto> searchJobs(String keyword, String location) {
         List<Job> jobs = jobRepository.findAll((root, query, cb) -> {
@@ -655,11 +862,10 @@ public class JobService {
 
             predicates.add(cb.isFalse(root.get("isDeleted")));
 
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                predicates.add(cb.like(
-                        cb.lower(root.get("title")),
-                        "%" + keyword.toLowerCase() + "%"
-                ));
+            String tsQuery = toPrefixTsQuery(keyword);
+            if (tsQuery != null) {
+                predicates.add(fullTextMatch(root, cb, tsQuery));
+                orderByRelevance(root, query, cb, tsQuery);
             }
 
             if (location != null && !location.trim().isEmpty()) {
@@ -669,12 +875,62 @@ public class JobService {
                 ));
             }
 
-            query.distinct(true);
             return cb.and(predicates.toArray(new Predicate[0]));
         });
 
-        return jobs.stream().map(this::toDto).collect(Collectors.toList());
+        return toDtosWithTags(jobs);
+    }
+    /**
+     * Chuyển từ khóa người dùng nhập thành tsquery dạng tiền tố ("lap trinh" -> "lap:* & trinh:*"),
+     * giữ hành vi gõ-đến-đâu-tìm-đến-đó như LIKE cũ nhưng dùng được GIN index.
+     */
+    private String toPrefixTsQuery(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return null;
+        }
+        String tsQuery = Arrays.stream(keyword.toLowerCase().split("[^\\p{L}\\p{M}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+
+    private Predicate fullTextMatch(Root<Job> root, CriteriaBuilder cb, String tsQuery) {
+        return cb.isTrue(cb.function("fts_match", Boolean.class, root.get("searchVector"), cb.literal(tsQuery)));
     }
+
+    private void orderByRelevance(Root<Job> root, CriteriaQuery<?> query, CriteriaBuilder cb, String tsQuery) {
+        // chỉ truy vấn lấy Job mới cần sắp xếp (bỏ qua count query của Page và projection của facets)
+        if (!Job.class.equals(query.getResultType())) {
+            return;
+        }
+        query.orderBy(
+                cb.desc(cb.function("fts_rank", Double.class, root.get("searchVector"), cb.literal(tsQuery))),
+                cb.desc(root.get("createdAt"))
+        );
+    }
+
+    // EXISTS thay cho JOIN để không nhân bản dòng (không cần DISTINCT, sắp xếp theo rank được)
+    private Predicate hasJobTag(Root<Job> root, CriteriaQuery<?> query, CriteriaBuilder cb, List<String> tags) {
+        Subquery<UUID> sub = query.subquery(UUID.class);
+        Root<JobTagMapping> mapping = sub.from(JobTagMapping.class);
+        sub.select(mapping.get("jtTagId")).where(
+                cb.equal(mapping.get("job"), root),
+                cb.lower(mapping.get("jobTag").get("jobName")).in(tags.stream().map(String::toLowerCase).toList())
+        );
+        return cb.exists(sub);
+    }
+
+    private Predicate hasGroupTag(Root<Job> root, CriteriaQuery<?> query, CriteriaBuilder cb, List<String> industry) {
+        Subquery<UUID> sub = query.subquery(UUID.class);
+        Root<JobGroupTagMapping> mapping = sub.from(JobGroupTagMapping.class);
+        sub.select(mapping.get("jgTagId")).where(
+                cb.equal(mapping.get("job"), root),
+                cb.lower(mapping.get("groupJobTag").get("groupJobName")).in(industry.stream().map(String::toLowerCase).toList())
+        );
+        return cb.exists(sub);
+    }
+
     @Transactional
     public JobDto changeJobStatus(UUID jobId, UUID currentUserId, Job.Status status) {
         Job job = jobRepository.findById(jobId)
@@ -687,6 +943,7 @@ public class JobService {
         }
         job.setStatus(status);
         job = jobRepository.save(job);
+        jobExpiryService.track(job);
 
         // Gửi log sang AdminService
         eventPublisher.publish(
@@ -705,21 +962,6 @@ public class JobService {
         return toDto(job);
     }
 
-    @Scheduled(cron = "0 0 0 * * *") // Runs daily at 0:00 AM
-    @Transactional
-    public void closeExpiredJobs() {
-        List<Job> expiredJobs = jobRepository.findByStatusAndDeadlineBefore(Job.Status.open, Timestamp.from(Instant.now()));
-        for (Job job : expiredJobs) {
-            job.setStatus(Job.Status.closed);
-            jobRepository.save(job);
-        }
-    }
-
-    @PostConstruct
-    public void runOnStartup() {
-        closeExpiredJobs();
-    }
-
     @Transactional
     public JobDto updateStatusEmbedding(UUID jobId, Job.StatusEmbedding status) {
         Job job = jobRepository.findById(jobId)
@@ -774,6 +1016,52 @@ public class JobService {
         return toDto(job);
     }
 
+    /**
+     * Map danh sách job sang DTO kèm thẻ và ngành nghề: 2 truy vấn IN (...) cho cả danh sách
+     * (chia lô để không vượt giới hạn tham số của JDBC) thay vì 2 truy vấn cho mỗi job.
+     */
+    private List<JobDto> toDtosWithTags(List<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<UUID> jobIds = jobs.stream().map(Job::getJobId).toList();
+        Map<UUID, List<JobTagDto>> tagsByJob = new HashMap<>();
+        Map<UUID, List<GroupJobTagDto>> groupTagsByJob = new HashMap<>();
+        for (int from = 0; from < jobIds.size(); from += TAG_BATCH_SIZE) {
+            List<UUID> batch = jobIds.subList(from, Math.min(from + TAG_BATCH_SIZE, jobIds.size()));
+            for (Object[] row : jobTagMappingRepository.findTagsByJobIds(batch)) {
+                tagsByJob.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add(toTagDto((JobTag) row[1]));
+            }
+            for (Object[] row : jobGroupTagMappingRepository.findGroupTagsByJobIds(batch)) {
+                groupTagsByJob.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add(toGroupTagDto((GroupJobTag) row[1]));
+            }
+        }
+        List<JobDto> dtos = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            JobDto dto = toDto(job);
+            dto.setJobTags(tagsByJob.getOrDefault(job.getJobId(), new ArrayList<>()));
+            dto.setGroupJobTags(groupTagsByJob.getOrDefault(job.getJobId(), new ArrayList<>()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private JobTagDto toTagDto(JobTag tag) {
+        JobTagDto tagDto = new JobTagDto();
+        tagDto.setJobTagId(tag.getJobTagId());
+        tagDto.setJobName(tag.getJobName());
+        tagDto.setIsDeleted(tag.getIsDeleted());
+        return tagDto;
+    }
+
+    private GroupJobTagDto toGroupTagDto(GroupJobTag tag) {
+        GroupJobTagDto groupJobTagDto = new GroupJobTagDto();
+        groupJobTagDto.setGroupTagId(tag.getGroupTagId());
+        groupJobTagDto.setGroupJobName(tag.getGroupJobName());
+        groupJobTagDto.setIsDeleted(tag.getIsDeleted());
+        return groupJobTagDto;
+    }
+
     private JobDto toDto(Job job) {
         JobDto dto = new JobDto();
         dto.setJobId(job.getJobId());
@@ -794,6 +1082,11 @@ public class JobService {
         dto.setCreatedAt(job.getCreatedAt());
         dto.setCreatedBy(job.getCreatedBy());
         dto.setUpdatedBy(job.getUpdatedBy());
+        dto.setAppliedCount(job.getAppliedCount());
+        dto.setPendingCount(job.getPendingCount());
+        dto.setApprovedCount(job.getApprovedCount());
+        dto.setRejectedCount(job.getRejectedCount());
+        dto.setFavoriteCount(job.getFavoriteCount());
         return dto;
     }
 }
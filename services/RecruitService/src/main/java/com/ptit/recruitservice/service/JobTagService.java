@@ -13,6 +13,7 @@ import com.ptit.recruitservice.repository.JobTagMappingRepository;
 import com.ptit.recruitservice.repository.JobRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +27,8 @@ public class JobTagService {
     private JobTagMappingRepository jobTagMappingRepository;
     @Autowired
     private JobRepository jobRepository;
+    @Autowired
+    private TagDictionaryService tagDictionaryService;
 
     public JobTagDto createJobTag(JobTagUpsertRequest dto) {
         if (dto.getJobName() == null || dto.getJobName().trim().isEmpty()) {
@@ -38,6 +41,7 @@ public class JobTagService {
         entity.setJobName(dto.getJobName());
         entity.setIsDeleted(false);
         entity = jobTagRepository.save(entity);
+        tagDictionaryService.invalidate();
         return toDto(entity);
     }
 
@@ -46,9 +50,11 @@ public class JobTagService {
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thẻ công việc: " + jobTagId));
         entity.setIsDeleted(true);
         jobTagRepository.save(entity);
+        tagDictionaryService.invalidate();
         return toDto(entity);
     }
 
+    @Transactional
     public JobTagDto updateJobTag(UUID jobTagId, JobTagUpsertRequest dto) {
         JobTag entity = jobTagRepository.findById(jobTagId)
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thẻ công việc: " + jobTagId));
@@ -60,17 +66,20 @@ public class JobTagService {
         }
         entity.setJobName(dto.getJobName());
         jobTagRepository.save(entity);
+        tagDictionaryService.invalidate();
+        jobRepository.refreshSearchVectorByJobTag(jobTagId);
         return toDto(entity);
     }
 
     public List<JobTagDto> getAllJobTags() {
-        return jobTagRepository.findByIsDeletedFalse().stream().map(this::toDto).collect(Collectors.toList());
+        return tagDictionaryService.getActiveJobTags().stream().map(this::toDto).collect(Collectors.toList());
     }
 
     public List<JobTagMappingDto> getJobTagsByJob(UUID jobId) {
         return jobTagMappingRepository.findByJob_JobId(jobId).stream().map(this::toMappingDto).collect(Collectors.toList());
     }
 
+    @Transactional
     public JobTagMappingDto addJobTagMapping(JobTagMappingCreateRequest dto) {
         JobTagMapping mapping = new JobTagMapping();
         mapping.setJob(jobRepository.findById(dto.getJobId())
@@ -78,11 +87,16 @@ public class JobTagService {
         mapping.setJobTag(jobTagRepository.findById(dto.getJobTagId())
             .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy thẻ công việc: " + dto.getJobTagId())));
         mapping = jobTagMappingRepository.save(mapping);
+        jobRepository.refreshSearchVector(dto.getJobId());
         return toMappingDto(mapping);
     }
 
+    @Transactional
     public String deleteJobTagMapping(UUID jtTagId) {
-        jobTagMappingRepository.deleteById(jtTagId);
+        jobTagMappingRepository.findById(jtTagId).ifPresent(mapping -> {
+            jobTagMappingRepository.delete(mapping);
+            jobRepository.refreshSearchVector(mapping.getJob().getJobId());
+        });
         return "Xóa ánh xạ thẻ công việc thành công";
     }
 
@@ -0,0 +1,126 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.entity.ReportCacheEntry;
+import com.ptit.recruitservice.enums.ReportType;
+import com.ptit.recruitservice.repository.ReportCacheEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả xuất báo cáo theo nội dung cho các tháng đã kết thúc.
+ * Khóa = SHA-256 của yêu cầu đã chuẩn hóa (công ty, tập loại báo cáo, tháng, định dạng) và watermark dữ liệu:
+ * md5 nội dung các đơn ứng tuyển trong tháng (trạng thái, thời điểm, CV và tiêu đề CV), md5 các lượt yêu thích
+ * trong tháng và md5 của danh sách job (tiêu đề, trạng thái) của công ty. Dữ liệu thay đổi thì watermark đổi,
+ * nên khóa cũ tự hết hiệu lực mà không cần xóa cache. Trúng cache chỉ trả lại object đã có.
+ */
+@Service
+public class ReportCacheService {
+    private static final String WATERMARK_SQL =
+            "SELECT (SELECT COALESCE(md5(string_agg(a.application_id::text || ':' || COALESCE(a.status, '')"
+            + " || ':' || COALESCE(a.applied_at::text, '') || ':' || COALESCE(a.is_deleted::text, '')"
+            + " || ':' || COALESCE(c.cv_id::text, '') || ':' || COALESCE(c.title, ''), ',' ORDER BY a.application_id)), '')"
+            + " FROM applications a JOIN jobs j ON j.job_id = a.job_id LEFT JOIN cvs c ON c.cv_id = a.cv_id"
+            + " WHERE j.company_id = ? AND a.applied_at >= ? AND a.applied_at < ?)"
+            + " || '|' || (SELECT COALESCE(md5(string_agg(f.favorite_id::text || ':' || f.job_id::text, ',' ORDER BY f.favorite_id)), '')"
+            + " FROM favorite_jobs f JOIN jobs j ON j.job_id = f.job_id"
+            + " WHERE j.company_id = ? AND f.created_at >= ? AND f.created_at < ?)"
+            + " || '|' || (SELECT COALESCE(md5(string_agg(j.job_id::text || ':' || j.title || ':' || COALESCE(j.status, '')"
+            + " || ':' || COALESCE(j.is_deleted::text, '') || ':' || COALESCE(j.created_at::text, ''), ',' ORDER BY j.job_id)), '')"
+            + " FROM jobs j WHERE j.company_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportCacheEntryRepository cacheRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ReportCacheService(JdbcTemplate jdbcTemplate,
+                              ReportCacheEntryRepository cacheRepository,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheRepository = cacheRepository;
+        this.hits = Counter.builder("recruit.reports.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("recruit.reports.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Trả về object đã có cho yêu cầu này, hoặc gọi generate (sinh và upload) rồi ghi nhận kết quả.
+     * Tháng hiện tại / tương lai luôn sinh mới.
+     */
+    public String getOrGenerate(UUID companyId, List<ReportType> types, String format, int year, int month,
+                                Supplier<String> generate) {
+        YearMonth ym = YearMonth.of(year, month);
+        if (companyId == null || !ym.isBefore(YearMonth.now())) {
+            return generate.get();
+        }
+        String key = cacheKey(companyId, types, format, ym);
+        ReportCacheEntry cached = cacheRepository.findById(key).orElse(null);
+        if (cached != null) {
+            hits.increment();
+            return cached.getObjectName();
+        }
+        misses.increment();
+        String objectName = generate.get();
+
+        ReportCacheEntry entry = new ReportCacheEntry();
+        entry.setCacheKey(key);
+        entry.setCompanyId(companyId);
+        entry.setObjectName(objectName);
+        entry.setCreatedAt(Timestamp.from(Instant.now()));
+        try {
+            cacheRepository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            // Yêu cầu giống hệt chạy đồng thời đã ghi trước; object vừa sinh vẫn thuộc về lịch sử của yêu cầu này
+        }
+        return objectName;
+    }
+
+    private String cacheKey(UUID companyId, List<ReportType> types, String format, YearMonth month) {
+        String fingerprint = companyId
+                + "|" + String.join(",", normalizeTypes(types))
+                + "|" + ("pdf".equalsIgnoreCase(format) ? "pdf" : "excel")
+                + "|" + month
+                + "|" + watermark(companyId, month);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Thứ tự các phần trong file do ReportExportService cố định, nên chỉ cần tập loại báo cáo (đã sắp xếp)
+    private static TreeSet<String> normalizeTypes(List<ReportType> types) {
+        TreeSet<String> keys = new TreeSet<>();
+        if (types == null || types.isEmpty() || types.contains(ReportType.ALL)) {
+            types = List.of(ReportType.MONTHLY, ReportType.JOB_PERFORMANCE, ReportType.APPLICANTS, ReportType.JOB_ENGAGEMENT);
+        }
+        for (ReportType type : types) {
+            keys.add(type.key());
+        }
+        return keys;
+    }
+
+    private String watermark(UUID companyId, YearMonth month) {
+        ZoneId zone = ZoneId.systemDefault();
+        Timestamp start = Timestamp.from(month.atDay(1).atStartOfDay(zone).toInstant());
+        Timestamp end = Timestamp.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+        return jdbcTemplate.queryForObject(WATERMARK_SQL, String.class,
+                companyId, start, end, companyId, start, end, companyId);
+    }
+}
@@ -1,31 +1,103 @@
 package com.ptit.recruitservice.service;
 import com.ptit.recruitservice.dto.*;
 import com.ptit.recruitservice.enums.ReportType;
+import com.ptit.recruitservice.utils.PdfFonts;
 import com.ptit.recruitservice.utils.PdfHelper;
 import com.ptit.recruitservice.utils.PdfTableHelper;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 @Service
 public class ReportExportService {
+    // Số dòng giữ trong bộ nhớ mỗi sheet; các dòng cũ hơn được SXSSF ghi ra file tạm
+    private static final int EXCEL_ROW_WINDOW = 200;
+    private static final int APPLICANT_CHUNK_SIZE = 1000;
+    // PDF dựng toàn bộ trong bộ nhớ nên chỉ lấy tối đa chừng này ứng viên
+    private static final int PDF_MAX_APPLICANTS = 10000;
+    private static final int EXCEL_MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
 
     @Autowired
     private ReportService reportService;
 
-    private PDType0Font loadUnicodeFont(PDDocument doc) throws IOException {
-        return PDType0Font.load(doc, getClass().getResourceAsStream("/fonts/Lexend-Regular.ttf"));
+    // Mỗi phần báo cáo lấy dữ liệu trên một virtual thread; semaphore giới hạn số truy vấn báo cáo chạy cùng lúc
+    private final ExecutorService sectionExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("report-section-", 0).factory());
+    private final Semaphore queryPermits;
+
+    public ReportExportService(@Value("${report.sections.max-concurrent-queries:4}") int maxConcurrentQueries) {
+        this.queryPermits = new Semaphore(maxConcurrentQueries);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sectionExecutor.shutdownNow();
+    }
+
+    /**
+     * Dữ liệu của các phần được yêu cầu, lấy song song ngay khi tạo; phần không được yêu cầu là null.
+     * Người gọi ghép tài liệu theo thứ tự cố định và chỉ chờ từng phần khi cần đến.
+     */
+    private final class Sections {
+        final CompletableFuture<MonthlyRecruitmentSummaryDTO> monthly;
+        final CompletableFuture<List<JobPerformanceDTO>> performance;
+        final CompletableFuture<List<JobEngagementDTO>> engagement;
+        final CompletableFuture<List<ApplicantDTO>> applicants;
+
+        Sections(List<ReportType> types, UUID companyId, int year, int month, boolean prefetchApplicants) {
+            monthly = types.contains(ReportType.MONTHLY)
+                    ? fetch(() -> reportService.getMonthlySummary(companyId, year, month)) : null;
+            performance = types.contains(ReportType.JOB_PERFORMANCE)
+                    ? fetch(() -> reportService.getJobPerformance(companyId, year, month)) : null;
+            engagement = types.contains(ReportType.JOB_ENGAGEMENT)
+                    ? fetch(() -> reportService.getJobEngagement(companyId, year, month)) : null;
+            applicants = prefetchApplicants && types.contains(ReportType.APPLICANTS)
+                    ? fetch(() -> reportService.getApplicants(companyId, year, month, PDF_MAX_APPLICANTS)) : null;
+        }
+    }
+
+    private <T> CompletableFuture<T> fetch(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> withQueryPermit(query), sectionExecutor);
+    }
+
+    private <T> T withQueryPermit(Supplier<T> query) {
+        queryPermits.acquireUninterruptibly();
+        try {
+            return query.get();
+        } finally {
+            queryPermits.release();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     private String translateStatus(String status) {
@@ -38,10 +110,25 @@ public class ReportExportService {
         };
     }
 
+    public static String contentType(String format) {
+        return "pdf".equalsIgnoreCase(format)
+                ? "application/pdf"
+                : "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    }
+
+    // format: "pdf" hoặc mặc định excel
+    public void export(List<ReportType> types, String format, UUID companyId, int year, int month, OutputStream out) throws IOException {
+        if ("pdf".equalsIgnoreCase(format)) {
+            exportPdf(types, companyId, year, month, out);
+        } else {
+            exportExcel(types, companyId, year, month, out);
+        }
+    }
+
     /* ---------------------------------------------------------
         EXPORT EXCEL
        --------------------------------------------------------- */
-    public void exportExcel(List<ReportType> types, int year, int month, OutputStream out) throws IOException {
+    public void exportExcel(List<ReportType> types, UUID companyId, int year, int month, OutputStream out) throws IOException {
         if (types == null || types.isEmpty() || types.contains(ReportType.ALL)) {
             types = Arrays.asList(
                     ReportType.MONTHLY,
@@ -51,19 +138,29 @@ public class ReportExportService {
             );
         }
 
-        try (Workbook wb = new XSSFWorkbook()) {
-            if (types.contains(ReportType.MONTHLY)) createMonthlySheet(wb, year, month);
-            if (types.contains(ReportType.JOB_PERFORMANCE)) createJobPerformanceSheet(wb, year, month);
-            if (types.contains(ReportType.APPLICANTS)) createApplicantsSheet(wb, year, month);
-            if (types.contains(ReportType.JOB_ENGAGEMENT)) createJobEngagementSheet(wb, year, month);
+        // Ứng viên được đọc theo lô ngay khi ghi sheet (trên luồng hiện tại), các phần còn lại lấy trước song song
+        Sections sections = new Sections(types, companyId, year, month, false);
+        SXSSFWorkbook wb = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        wb.setCompressTempFiles(true);
+        try {
+            if (sections.monthly != null) createMonthlySheet(wb, year, month, await(sections.monthly));
+            if (sections.performance != null) createJobPerformanceSheet(wb, year, month, await(sections.performance));
+            if (types.contains(ReportType.APPLICANTS)) withQueryPermit(() -> {
+                createApplicantsSheet(wb, companyId, year, month);
+                return null;
+            });
+            if (sections.engagement != null) createJobEngagementSheet(wb, year, month, await(sections.engagement));
             wb.write(out);
+        } finally {
+            wb.close();
+            wb.dispose();
         }
     }
 
     /* ---------------------------------------------------------
         EXPORT PDF (Unicode)
        --------------------------------------------------------- */
-    public void exportPdf(List<ReportType> types, int year, int month, OutputStream out) throws IOException {
+    public void exportPdf(List<ReportType> types, UUID companyId, int year, int month, OutputStream out) throws IOException {
 
         if (types == null || types.isEmpty() || types.contains(ReportType.ALL)) {
             types = Arrays.asList(
@@ -74,11 +171,13 @@ public class ReportExportService {
             );
         }
 
+        Sections sections = new Sections(types, companyId, year, month, true);
         try (PDDocument doc = new PDDocument()) {
-            if (types.contains(ReportType.MONTHLY)) writeMonthlyPdf(doc, year, month);
-            if (types.contains(ReportType.JOB_PERFORMANCE)) writeJobPerformancePdf(doc, year, month);
-            if (types.contains(ReportType.APPLICANTS)) writeApplicantsPdf(doc, year, month);
-            if (types.contains(ReportType.JOB_ENGAGEMENT)) writeJobEngagementPdf(doc, year, month);
+            PDType0Font font = PdfFonts.lexend(doc);
+            if (sections.monthly != null) writeMonthlyPdf(doc, font, year, month, await(sections.monthly));
+            if (sections.performance != null) writeJobPerformancePdf(doc, font, year, month, await(sections.performance));
+            if (sections.applicants != null) writeApplicantsPdf(doc, font, year, month, await(sections.applicants));
+            if (sections.engagement != null) writeJobEngagementPdf(doc, font, year, month, await(sections.engagement));
             doc.save(out);
         }
     }
@@ -86,8 +185,7 @@ public class ReportExportService {
     /* ---------------------------------------------------------
         EXCEL SHEETS
        --------------------------------------------------------- */
-    private void createMonthlySheet(Workbook wb, int year, int month) {
-        MonthlyRecruitmentSummaryDTO dto = reportService.getMonthlySummary(year, month);
+    private void createMonthlySheet(Workbook wb, int year, int month, MonthlyRecruitmentSummaryDTO dto) {
         Sheet s = wb.createSheet("Tổng quan tin tuyển dụng");
 
         Row titleRow = s.createRow(0);
@@ -122,13 +220,11 @@ public class ReportExportService {
         s.createRow(r++).createCell(0).setCellValue("Tỉ lệ tuyển thành công");
         s.getRow(r - 1).createCell(1).setCellValue(dto.getHireRate());
 
-        s.autoSizeColumn(0);
-        s.autoSizeColumn(1);
+        setColumnWidths(s, 32, 14);
     }
 
 
-    private void createJobPerformanceSheet(Workbook wb, int year, int month) {
-        List<JobPerformanceDTO> list = reportService.getJobPerformance(year, month);
+    private void createJobPerformanceSheet(Workbook wb, int year, int month, List<JobPerformanceDTO> list) {
         Sheet s = wb.createSheet("Hiệu suất công việc");
 
         String[] cols = {
@@ -159,38 +255,47 @@ public class ReportExportService {
             row.createCell(5).setCellValue(j.getConversionRate());
         }
 
-        // --- Auto size columns ---
-        for (int i = 0; i < cols.length; i++) s.autoSizeColumn(i);
+        setColumnWidths(s, 45, 16, 12, 12, 16, 18);
     }
 
 
-    private void createApplicantsSheet(Workbook wb, int year, int month) {
-        var page = reportService.getApplicants(year, month, null, PageRequest.of(0, 10000));
-        Sheet s = wb.createSheet("Thống kê ứng viên");
-
+    // Đọc ứng viên theo lô, không giới hạn số dòng; vượt quá số dòng tối đa của một sheet thì sang sheet tiếp theo
+    private void createApplicantsSheet(Workbook wb, UUID companyId, int year, int month) {
         String[] cols = { "Tên CV", "Tiêu đề", "Trạng thái", "Ngày ứng tuyển" };
+        String title = "Thống kê ứng viên tháng " + month + "/" + year;
+        Sheet[] sheet = { createApplicantsSheetPart(wb, 1, title, cols) };
+        int[] part = { 1 };
+        int[] r = { 2 };
+        reportService.forEachApplicantChunk(companyId, year, month, APPLICANT_CHUNK_SIZE, chunk -> {
+            for (ApplicantDTO a : chunk) {
+                if (r[0] >= EXCEL_MAX_ROWS) {
+                    sheet[0] = createApplicantsSheetPart(wb, ++part[0], title, cols);
+                    r[0] = 2;
+                }
+                Row row = sheet[0].createRow(r[0]++);
+                row.createCell(0).setCellValue(a.getCandidateName());
+                row.createCell(1).setCellValue(a.getJobTitle());
+                row.createCell(2).setCellValue(translateStatus(a.getStatus()));
+                row.createCell(3).setCellValue(a.getAppliedAt() != null ? a.getAppliedAt().toString() : "");
+            }
+            return true;
+        });
+    }
+
+    private Sheet createApplicantsSheetPart(Workbook wb, int part, String title, String[] cols) {
+        Sheet s = wb.createSheet(part == 1 ? "Thống kê ứng viên" : "Thống kê ứng viên (" + part + ")");
         Row titleRow = s.createRow(0);
         Cell titleCell = titleRow.createCell(0);
-        String title = "Thống kê ứng viên tháng " + month + "/" + year;
         titleCell.setCellValue(title);
         s.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, cols.length - 1));
 
         Row header = s.createRow(1);
         for (int i = 0; i < cols.length; i++) header.createCell(i).setCellValue(cols[i]);
-
-        int r = 2;
-        for (ApplicantDTO a : page.getContent()) {
-            Row row = s.createRow(r++);
-            row.createCell(0).setCellValue(a.getCandidateName());
-            row.createCell(1).setCellValue(a.getJobTitle());
-            row.createCell(2).setCellValue(translateStatus(a.getStatus()));
-            row.createCell(3).setCellValue(a.getAppliedAt() != null ? a.getAppliedAt().toString() : "");
-        }
-        for (int i = 0; i < cols.length; i++) s.autoSizeColumn(i);
+        setColumnWidths(s, 36, 45, 14, 24);
+        return s;
     }
 
-    private void createJobEngagementSheet(Workbook wb, int year, int month) {
-        List<JobEngagementDTO> list = reportService.getJobEngagement(year, month);
+    private void createJobEngagementSheet(Workbook wb, int year, int month, List<JobEngagementDTO> list) {
         Sheet s = wb.createSheet("Công việc được quan tâm");
 
         String[] cols = { "Tiêu đề công việc", "Lượt yêu thích", "Số ứng tuyển", "Điểm quan tâm" };
@@ -212,17 +317,22 @@ public class ReportExportService {
             row.createCell(2).setCellValue(j.getApplies());
             row.createCell(3).setCellValue(j.getInterestScore());
         }
-        for (int i = 0; i < cols.length; i++) s.autoSizeColumn(i);
+        setColumnWidths(s, 45, 16, 16, 16);
+    }
+
+    // Độ rộng cố định (theo số ký tự) thay cho autoSizeColumn, vốn phải đo lại mọi ô và không dùng được với SXSSF
+    private void setColumnWidths(Sheet s, int... chars) {
+        for (int i = 0; i < chars.length; i++) {
+            s.setColumnWidth(i, chars[i] * 256);
+        }
     }
 
 
     /* ---------------------------------------------------------
         PDF WRITERS (Unicode)
        --------------------------------------------------------- */
-    private void writeMonthlyPdf(PDDocument doc, int year, int month) throws IOException {
-        PdfHelper pdf = new PdfHelper(doc);
-
-        MonthlyRecruitmentSummaryDTO dto = reportService.getMonthlySummary(year, month);
+    private void writeMonthlyPdf(PDDocument doc, PDType0Font font, int year, int month, MonthlyRecruitmentSummaryDTO dto) throws IOException {
+        PdfHelper pdf = new PdfHelper(doc, font);
 
         pdf.title("Báo cáo tổng quan tuyển dụng tháng " + month + "/" + year);
 
@@ -237,14 +347,13 @@ public class ReportExportService {
     }
 
 
-    private void writeJobPerformancePdf(PDDocument doc, int year, int month) throws IOException {
-        PdfTableHelper pdf = new PdfTableHelper(doc);
-        List<JobPerformanceDTO> list = reportService.getJobPerformance(year, month);
+    private void writeJobPerformancePdf(PDDocument doc, PDType0Font font, int year, int month, List<JobPerformanceDTO> list) throws IOException {
+        PdfTableHelper pdf = new PdfTableHelper(doc, font);
         pdf.drawTableLandscapeOnPortrait(
                 String.format("Hiệu suất công việc tháng %d/%d", month, year),
                 List.of("Tiêu đề công việc", "Ứng tuyển", "Từ chối", "Đã tuyển", "Yêu thích", "Tỉ lệ tuyển"),
                 list.stream().map(j -> List.of(
-                        truncate(j.getJobTitle(), 30),
+                        text(j.getJobTitle()),
                         String.valueOf(j.getApplied()),
                         String.valueOf(j.getRejected()),
                         String.valueOf(j.getHired()),
@@ -256,17 +365,15 @@ public class ReportExportService {
     }
 
 
-    private void writeApplicantsPdf(PDDocument doc, int year, int month) throws IOException {
-        PdfTableHelper pdf = new PdfTableHelper(doc);
-        var pageData = reportService.getApplicants(year, month, null, PageRequest.of(0, 10000));
-        List<ApplicantDTO> list = pageData.getContent();
+    private void writeApplicantsPdf(PDDocument doc, PDType0Font font, int year, int month, List<ApplicantDTO> list) throws IOException {
+        PdfTableHelper pdf = new PdfTableHelper(doc, font);
         List<String> headers = List.of("Tên CV", "Tiêu đề công việc", "Trạng thái", "Ngày ứng tuyển");
         pdf.drawTableLandscapeOnPortrait(
                 String.format("Thống kê danh sách ứng viên tháng %d/%d", month, year),
                 headers,
                 list.stream().map(a -> List.of(
                         a.getCandidateName(),
-                        truncate(a.getJobTitle(), 30),
+                        text(a.getJobTitle()),
                         translateStatus(a.getStatus()), // chuyển sang tiếng Việt
                         a.getAppliedAt() != null ? a.getAppliedAt().toString() : ""
                 )).toList()
@@ -275,14 +382,13 @@ public class ReportExportService {
         pdf.close();
     }
 
-    private void writeJobEngagementPdf(PDDocument doc, int year, int month) throws IOException {
-        PdfTableHelper pdf = new PdfTableHelper(doc);
-        List<JobEngagementDTO> list = reportService.getJobEngagement(year, month);
+    private void writeJobEngagementPdf(PDDocument doc, PDType0Font font, int year, int month, List<JobEngagementDTO> list) throws IOException {
+        PdfTableHelper pdf = new PdfTableHelper(doc, font);
         pdf.drawTableLandscapeOnPortrait(
                 String.format("Danh sách công việc được quan tâm tháng %d/%d", month, year),
                 List.of("Tiêu đề công việc", "Lượt yêu thích", "Lượt ứng tuyển", "Điểm quan tâm"),
                 list.stream().map(j -> List.of(
-                        truncate(j.getJobTitle(), 30),
+                        text(j.getJobTitle()),
                         String.valueOf(j.getFavorites()),
                         String.valueOf(j.getApplies()),
                         String.valueOf(j.getInterestScore())
@@ -293,8 +399,8 @@ public class ReportExportService {
     }
 
 
-    private String truncate(String s, int len) {
-        if (s == null) return "";
-        return s.length() <= len ? s : s.substring(0, len - 3) + "...";
+    // Ô bảng PDF tự cắt theo độ rộng cột (PdfTableHelper), ở đây chỉ thay null bằng chuỗi rỗng
+    private String text(String s) {
+        return s == null ? "" : s;
     }
 }
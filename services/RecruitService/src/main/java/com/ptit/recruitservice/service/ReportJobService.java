@@ -0,0 +1,252 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.entity.ReportHistory;
+import com.ptit.recruitservice.enums.ReportType;
+import com.ptit.recruitservice.exception.BusinessException;
+import com.ptit.recruitservice.exception.ResourceNotFoundException;
+import com.ptit.recruitservice.repository.ReportHistoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Xuất báo cáo bất đồng bộ: mỗi yêu cầu tạo một ReportHistory trạng thái queued và được một worker
+ * trong pool cố định (report.async.workers) sinh file rồi upload lên MinIO.
+ * Số worker cũng là số truy vấn báo cáo chạy đồng thời tối đa trên database; hàng đợi có giới hạn
+ * (report.async.queue-capacity), đầy thì từ chối ngay thay vì dồn việc.
+ * Người dùng theo dõi bằng cách poll bản ghi lịch sử hoặc đăng ký SSE; kết nối SSE có thể nằm ở instance khác
+ * với instance chạy job nên mỗi instance cũng định kỳ đọc lại các bản ghi đang có người theo dõi.
+ * Instance cập nhật heartbeat_at cho các job mình đang giữ; job chỉ bị coi là treo khi heartbeat quá cũ,
+ * và worker chuyển trạng thái bằng UPDATE có điều kiện nên không ghi đè bản ghi đã bị xóa / đánh dấu thất bại.
+ */
+@Service
+public class ReportJobService {
+    private static final long SSE_TIMEOUT_MS = 10 * 60 * 1000L;
+    private static final List<ReportHistory.Status> ACTIVE = List.of(ReportHistory.Status.queued, ReportHistory.Status.running);
+
+    private final ReportExportService exportService;
+    private final ReportStorageService storageService;
+    private final ReportCacheService cacheService;
+    private final ReportHistoryRepository historyRepository;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final long staleAfterMillis;
+    private final Map<UUID, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // Các job queued / running thuộc instance này
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ReportJobService(ReportExportService exportService,
+                            ReportStorageService storageService,
+                            ReportCacheService cacheService,
+                            ReportHistoryRepository historyRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${report.async.workers:2}") int workerCount,
+                            @Value("${report.async.queue-capacity:50}") int queueCapacity,
+                            @Value("${report.async.stale-after-ms:3600000}") long staleAfterMillis) {
+        this.exportService = exportService;
+        this.storageService = storageService;
+        this.cacheService = cacheService;
+        this.historyRepository = historyRepository;
+        this.meterRegistry = meterRegistry;
+        this.staleAfterMillis = staleAfterMillis;
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "report-job-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Gauge.builder("recruit.reports.queue.depth", workers, w -> w.getQueue().size())
+                .description("Số báo cáo đang chờ trong hàng đợi")
+                .register(meterRegistry);
+        Gauge.builder("recruit.reports.running", workers, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public ReportHistory submit(UUID userId, UUID companyId, List<ReportType> types, String format, int year, int month) {
+        ReportHistory history = storageService.newHistory(userId, types, format, year, month);
+        history.setStatus(ReportHistory.Status.queued);
+        history.setHeartbeatAt(history.getCreatedAt());
+        history = historyRepository.save(history);
+        UUID historyId = history.getId();
+        inFlight.add(historyId);
+        try {
+            workers.execute(() -> run(historyId, types, format, companyId, year, month));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(historyId);
+            markFailed(historyId, "Hàng đợi xuất báo cáo đã đầy", 0);
+            throw new BusinessException("Hệ thống đang xử lý nhiều báo cáo, vui lòng thử lại sau");
+        }
+        return history;
+    }
+
+    public ReportHistory getOwned(UUID historyId, UUID userId) {
+        ReportHistory history = historyRepository.findById(historyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy báo cáo"));
+        if (history.getUserId() == null || !history.getUserId().equals(userId)) {
+            throw new AccessDeniedException("Bạn không có quyền xem báo cáo này");
+        }
+        return history;
+    }
+
+    /**
+     * SSE: gửi sự kiện "status" với bản ghi lịch sử khi báo cáo xong / lỗi rồi đóng kết nối.
+     * Nếu báo cáo đã kết thúc thì gửi ngay; job chạy ở instance khác được phát hiện qua pollSubscribed.
+     */
+    public SseEmitter subscribe(UUID historyId, UUID userId) {
+        getOwned(historyId, userId);
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        subscribers.computeIfAbsent(historyId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        Runnable remove = () -> subscribers.computeIfPresent(historyId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        // Đọc lại sau khi đăng ký để không lỡ thông báo hoàn tất xảy ra ở giữa
+        historyRepository.findById(historyId).filter(ReportJobService::isFinished).ifPresent(history -> {
+            remove.run();
+            send(emitter, history);
+        });
+        return emitter;
+    }
+
+    // Một truy vấn cho mọi bản ghi đang có người theo dõi trên instance này, bất kể instance nào chạy job
+    @Scheduled(fixedDelayString = "${report.async.sse-poll-ms:2000}")
+    public void pollSubscribed() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<UUID> ids = Set.copyOf(subscribers.keySet());
+        Set<UUID> found = new HashSet<>();
+        for (ReportHistory history : historyRepository.findAllById(ids)) {
+            found.add(history.getId());
+            if (isFinished(history)) {
+                notifySubscribers(history);
+            }
+        }
+        // Bản ghi đã bị xóa: không còn gì để chờ
+        for (UUID id : ids) {
+            if (!found.contains(id)) {
+                List<SseEmitter> emitters = subscribers.remove(id);
+                if (emitters != null) {
+                    emitters.forEach(SseEmitter::complete);
+                }
+            }
+        }
+    }
+
+    // report.async.heartbeat-ms phải nhỏ hơn nhiều so với report.async.stale-after-ms
+    @Scheduled(fixedDelayString = "${report.async.heartbeat-ms:60000}")
+    public void heartbeat() {
+        if (!inFlight.isEmpty()) {
+            historyRepository.heartbeat(List.copyOf(inFlight), ACTIVE, Timestamp.from(Instant.now()));
+        }
+    }
+
+    // Dọn các job bị treo khi instance xử lý chúng dừng đột ngột (không còn heartbeat)
+    @Scheduled(fixedDelayString = "${report.async.stale-check-ms:600000}")
+    public void failStaleJobs() {
+        Timestamp now = Timestamp.from(Instant.now());
+        historyRepository.failStale(ACTIVE, new Timestamp(now.getTime() - staleAfterMillis), ReportHistory.Status.failed,
+                "Quá thời gian xử lý", now);
+    }
+
+    private void run(UUID historyId, List<ReportType> types, String format, UUID companyId, int year, int month) {
+        long started = System.nanoTime();
+        String outcome = "done";
+        try {
+            if (historyRepository.markRunning(historyId, ReportHistory.Status.queued, ReportHistory.Status.running,
+                    Timestamp.from(Instant.now())) == 0) {
+                // Người dùng đã xóa yêu cầu trong lúc chờ, hoặc job đã bị đánh dấu treo
+                outcome = "cancelled";
+                return;
+            }
+
+            String objectName = cacheService.getOrGenerate(companyId, types, format, year, month,
+                    () -> storageService.streamUpload(
+                            out -> exportService.export(types, format, companyId, year, month, out),
+                            ReportExportService.contentType(format), "reports"));
+
+            if (historyRepository.markDone(historyId, ReportHistory.Status.running, ReportHistory.Status.done, objectName,
+                    Timestamp.from(Instant.now()), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)) == 0) {
+                outcome = "cancelled";
+                storageService.removeOrphanObject(objectName);
+            }
+            notifyIfFinished(historyId);
+        } catch (Exception e) {
+            outcome = "failed";
+            e.printStackTrace();
+            markFailed(historyId, e.getMessage(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            inFlight.remove(historyId);
+            Timer.builder("recruit.reports.duration")
+                    .tag("format", "pdf".equalsIgnoreCase(format) ? "pdf" : "excel")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void markFailed(UUID historyId, String message, long durationMs) {
+        historyRepository.markFailed(historyId, ACTIVE, ReportHistory.Status.failed, message,
+                Timestamp.from(Instant.now()), durationMs);
+        notifyIfFinished(historyId);
+    }
+
+    private void notifyIfFinished(UUID historyId) {
+        historyRepository.findById(historyId).filter(ReportJobService::isFinished).ifPresent(this::notifySubscribers);
+    }
+
+    private static boolean isFinished(ReportHistory history) {
+        return history.getStatus() == null
+                || history.getStatus() == ReportHistory.Status.done
+                || history.getStatus() == ReportHistory.Status.failed;
+    }
+
+    private void notifySubscribers(ReportHistory history) {
+        List<SseEmitter> emitters = subscribers.remove(history.getId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, history));
+        }
+    }
+
+    private static void send(SseEmitter emitter, ReportHistory history) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(history));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        } catch (IllegalStateException ignored) {
+            // emitter đã đóng (đã gửi trước đó hoặc hết hạn)
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.entity.Job;
+import com.ptit.recruitservice.entity.PrecomputedReport;
+import com.ptit.recruitservice.enums.ReportType;
+import com.ptit.recruitservice.repository.JobMonthlyStatsRepository;
+import com.ptit.recruitservice.repository.JobRepository;
+import com.ptit.recruitservice.repository.PrecomputedReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sinh sẵn báo cáo tháng đầy đủ (Excel và PDF) cho từng công ty ngay sau khi tháng kết thúc,
+ * vì nhà tuyển dụng thường xuất báo cáo tháng trước cùng lúc vào đầu tháng mới.
+ *
+ * Các công ty được xử lý song song tối đa report.precompute.parallelism; mỗi (công ty, định dạng) xong
+ * được ghi ngay vào precomputed_reports, nên lượt chạy bị ngắt (instance dừng, lỗi) sẽ tiếp tục từ chỗ dở
+ * ở lần chạy sau. Advisory lock của Postgres đảm bảo chỉ một instance chạy tại một thời điểm.
+ * Object sinh sẵn được ghi vào ReportCacheService dưới khóa (yêu cầu + watermark dữ liệu) lúc sinh, nên yêu cầu
+ * xuất báo cáo đầy đủ chỉ dùng lại nó khi số liệu của tháng chưa thay đổi kể từ đó.
+ */
+@Service
+public class ReportPrecomputeService {
+    private static final long PRECOMPUTE_LOCK_KEY = 7_310_021_002L;
+    private static final List<String> FORMATS = List.of("excel", "pdf");
+    private static final List<ReportType> FULL_REPORT = List.of(ReportType.ALL);
+    private static final String OBJECT_PREFIX = "reports/precomputed";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReportExportService exportService;
+    private final ReportStorageService storageService;
+    private final ReportCacheService cacheService;
+    private final PrecomputedReportRepository precomputedRepository;
+    private final JobRepository jobRepository;
+    private final JobMonthlyStatsRepository statsRepository;
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+    private final int parallelism;
+
+    public ReportPrecomputeService(JdbcTemplate jdbcTemplate,
+                                   ReportExportService exportService,
+                                   ReportStorageService storageService,
+                                   ReportCacheService cacheService,
+                                   PrecomputedReportRepository precomputedRepository,
+                                   JobRepository jobRepository,
+                                   JobMonthlyStatsRepository statsRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${report.precompute.parallelism:2}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportService = exportService;
+        this.storageService = storageService;
+        this.cacheService = cacheService;
+        this.precomputedRepository = precomputedRepository;
+        this.jobRepository = jobRepository;
+        this.statsRepository = statsRepository;
+        this.parallelism = Math.max(parallelism, 1);
+        this.generatedCounter = Counter.builder("recruit.reports.precomputed").tag("result", "done").register(meterRegistry);
+        this.failedCounter = Counter.builder("recruit.reports.precomputed").tag("result", "failed").register(meterRegistry);
+    }
+
+    // Chạy sau khi job_monthly_stats của tháng vừa kết thúc được dựng lại (00:15)
+    @Scheduled(cron = "${report.precompute.cron:0 30 0 1 * *}")
+    public void precomputePreviousMonth() {
+        precompute(YearMonth.now().minusMonths(1));
+    }
+
+    // Tiếp tục lượt sinh dở dang (nếu có) sau khi ứng dụng sẵn sàng
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        try {
+            precompute(YearMonth.now().minusMonths(1));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return số báo cáo đã sinh trong lượt này; 0 nếu instance khác đang giữ khóa
+     */
+    public int precompute(YearMonth month) {
+        Integer generated = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            if (!tryLock(con)) {
+                return 0;
+            }
+            try {
+                return precomputeCompanies(month);
+            } finally {
+                unlock(con);
+            }
+        });
+        return generated != null ? generated : 0;
+    }
+
+    private int precomputeCompanies(YearMonth month) {
+        AtomicInteger generated = new AtomicInteger();
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "report-precompute-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (UUID companyId : activeCompanies(month)) {
+                tasks.add(pool.submit(() -> generated.addAndGet(precomputeCompany(companyId, month))));
+            }
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        return generated.get();
+    }
+
+    // Lỗi ở một công ty / định dạng chỉ bỏ qua phần đó; lần chạy sau sẽ thử lại vì chưa có checkpoint
+    private int precomputeCompany(UUID companyId, YearMonth month) {
+        int generated = 0;
+        for (String format : FORMATS) {
+            if (precomputedRepository.existsByCompanyIdAndStatMonthAndFileFormat(companyId, month.atDay(1), format)) {
+                continue;
+            }
+            long started = System.nanoTime();
+            try {
+                // Ghi vào cache theo watermark hiện tại; nếu đã có bản trùng khóa thì dùng lại object đó
+                String objectName = cacheService.getOrGenerate(companyId, FULL_REPORT, format,
+                        month.getYear(), month.getMonthValue(),
+                        () -> storageService.streamUpload(
+                                out -> exportService.export(FULL_REPORT, format, companyId, month.getYear(), month.getMonthValue(), out),
+                                ReportExportService.contentType(format), OBJECT_PREFIX));
+
+                PrecomputedReport report = new PrecomputedReport();
+                report.setId(UUID.randomUUID());
+                report.setCompanyId(companyId);
+                report.setStatMonth(month.atDay(1));
+                report.setFileFormat(format);
+                report.setObjectName(objectName);
+                report.setGeneratedAt(Timestamp.from(Instant.now()));
+                report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                precomputedRepository.save(report);
+                generatedCounter.increment();
+                generated++;
+            } catch (DataIntegrityViolationException e) {
+                // Đã có checkpoint (ghi đồng thời), giữ bản ghi cũ
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                e.printStackTrace();
+            }
+        }
+        return generated;
+    }
+
+    // Công ty có số liệu ứng tuyển / yêu thích trong tháng, còn job đang mở hoặc có job tạo trong tháng
+    private Set<UUID> activeCompanies(YearMonth month) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.atEndOfMonth().atTime(LocalTime.MAX);
+        Set<UUID> companies = new LinkedHashSet<>(statsRepository.findCompanyIdsByStatMonth(month.atDay(1)));
+        companies.addAll(jobRepository.findCompanyIdsWithStatusOrCreatedBetween(Job.Status.open,
+                Timestamp.from(start.atZone(zone).toInstant()), Timestamp.from(end.atZone(zone).toInstant())));
+        return companies;
+    }
+
+    private boolean tryLock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, PRECOMPUTE_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, PRECOMPUTE_LOCK_KEY);
+            ps.execute();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.entity.Application;
+import com.ptit.recruitservice.entity.Job;
+import com.ptit.recruitservice.entity.JobMonthlyStats;
+import com.ptit.recruitservice.repository.JobMonthlyStatsRepository;
+import com.ptit.recruitservice.repository.ReportRollupMonthRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Duy trì bảng job_monthly_stats cho báo cáo tuyển dụng.
+ * Mỗi thao tác ghi ứng tuyển / đổi trạng thái / yêu thích gọi record* trong transaction của mình và cộng trừ
+ * vào dòng (job, tháng) tương ứng sau khi commit;
+ * rebuild dựng lại cả tháng từ applications và favorite_jobs và đánh dấu tháng đó trong report_rollup_months.
+ * ReportService chỉ đọc bảng này cho các tháng đã kết thúc và đã được dựng.
+ */
+@Service
+public class ReportRollupService {
+    private static final String UPSERT_SQL =
+            "INSERT INTO job_monthly_stats (id, job_id, company_id, stat_month, applied, approved, rejected, favorites)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (job_id, stat_month) DO UPDATE SET"
+            + " applied = job_monthly_stats.applied + EXCLUDED.applied,"
+            + " approved = job_monthly_stats.approved + EXCLUDED.approved,"
+            + " rejected = job_monthly_stats.rejected + EXCLUDED.rejected,"
+            + " favorites = job_monthly_stats.favorites + EXCLUDED.favorites";
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO job_monthly_stats (id, job_id, company_id, stat_month, applied, approved, rejected, favorites)"
+            + " SELECT gen_random_uuid(), s.job_id, j.company_id, ?, SUM(s.applied), SUM(s.approved), SUM(s.rejected), SUM(s.favorites) FROM ("
+            + " SELECT job_id, COUNT(*) AS applied,"
+            + " COUNT(*) FILTER (WHERE status = 'approved') AS approved,"
+            + " COUNT(*) FILTER (WHERE status = 'rejected') AS rejected, 0 AS favorites"
+            + " FROM applications WHERE job_id IS NOT NULL AND applied_at >= ? AND applied_at < ? GROUP BY job_id"
+            + " UNION ALL"
+            + " SELECT job_id, 0, 0, 0, COUNT(*) FROM favorite_jobs"
+            + " WHERE job_id IS NOT NULL AND created_at >= ? AND created_at < ? GROUP BY job_id"
+            + ") s JOIN jobs j ON j.job_id = s.job_id GROUP BY s.job_id, j.company_id";
+
+    // clock_timestamp() (micro giây) làm phiên bản dựng của tháng
+    private static final String MARK_SQL =
+            "INSERT INTO report_rollup_months (stat_month, rebuilt_at) VALUES (?, clock_timestamp())"
+            + " ON CONFLICT (stat_month) DO UPDATE SET rebuilt_at = EXCLUDED.rebuilt_at";
+
+    // Advisory lock theo tháng: upsert giữ khóa chia sẻ, rebuild giữ khóa độc quyền
+    private static final int ROLLUP_LOCK_SPACE = 0x524f4c4c;
+    private static final String LOCK_SHARED_SQL = "SELECT pg_advisory_xact_lock_shared(?, ?)";
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?, ?)";
+
+    private static final String EARLIEST_SQL =
+            "SELECT MIN(t) FROM (SELECT MIN(applied_at) AS t FROM applications"
+            + " UNION ALL SELECT MIN(created_at) FROM favorite_jobs) x";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobMonthlyStatsRepository statsRepository;
+    private final ReportRollupMonthRepository rollupMonthRepository;
+
+    public ReportRollupService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               JobMonthlyStatsRepository statsRepository,
+                               ReportRollupMonthRepository rollupMonthRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // upsert chạy trong afterCommit của transaction gốc nên luôn cần transaction riêng
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.statsRepository = statsRepository;
+        this.rollupMonthRepository = rollupMonthRepository;
+    }
+
+    public void recordApplication(Job job, Timestamp appliedAt, Application.Status status) {
+        add(job, appliedAt, 1, delta(status, Application.Status.approved), delta(status, Application.Status.rejected), 0);
+    }
+
+    public void recordStatusChange(Job job, Timestamp appliedAt, Application.Status from, Application.Status to) {
+        if (from == to) {
+            return;
+        }
+        add(job, appliedAt, 0,
+                delta(to, Application.Status.approved) - delta(from, Application.Status.approved),
+                delta(to, Application.Status.rejected) - delta(from, Application.Status.rejected), 0);
+    }
+
+    /**
+     * Đổi trạng thái hàng loạt: applications còn mang trạng thái cũ, targets là trạng thái mới theo applicationId.
+     * Chênh lệch được cộng dồn theo (job, tháng) rồi ghi bằng một batch upsert.
+     */
+    public void recordStatusChanges(Collection<Application> applications, Map<UUID, Application.Status> targets) {
+        Map<String, Object[]> rows = new LinkedHashMap<>();
+        for (Application application : applications) {
+            Job job = application.getJob();
+            Application.Status from = application.getStatus();
+            Application.Status to = targets.get(application.getApplicationId());
+            if (to == null || from == to || job == null || job.getJobId() == null || application.getAppliedAt() == null) {
+                continue;
+            }
+            LocalDate statMonth = YearMonth.from(application.getAppliedAt().toLocalDateTime()).atDay(1);
+            Object[] row = rows.computeIfAbsent(job.getJobId() + "|" + statMonth, k -> new Object[]{
+                    UUID.randomUUID(), job.getJobId(), job.getCompanyId(), Date.valueOf(statMonth), 0, 0, 0, 0});
+            row[5] = (int) row[5] + delta(to, Application.Status.approved) - delta(from, Application.Status.approved);
+            row[6] = (int) row[6] + delta(to, Application.Status.rejected) - delta(from, Application.Status.rejected);
+        }
+        record(new ArrayList<>(rows.values()));
+    }
+
+    // delta = 1 khi thêm, -1 khi bỏ yêu thích
+    public void recordFavorite(Job job, Timestamp createdAt, int delta) {
+        add(job, createdAt, 0, 0, 0, delta);
+    }
+
+    public boolean isRolledUp(YearMonth month) {
+        return rollupMonthRepository.existsById(month.atDay(1));
+    }
+
+    public List<JobMonthlyStats> getStats(UUID companyId, YearMonth month) {
+        return statsRepository.findByCompanyIdAndStatMonth(companyId, month.atDay(1));
+    }
+
+    /**
+     * Dựng lại toàn bộ số liệu của một tháng từ dữ liệu gốc trong một transaction.
+     * Khóa độc quyền của tháng chờ mọi thao tác ghi đang giữ khóa chia sẻ commit (để snapshot thấy chúng)
+     * và chặn thao tác mới đến khi dựng xong; rebuilt_at mới khiến các upsert sau commit của thay đổi đã được tính bị bỏ qua.
+     */
+    public void rebuild(YearMonth month) {
+        ZoneId zone = ZoneId.systemDefault();
+        Date statMonth = Date.valueOf(month.atDay(1));
+        Timestamp start = Timestamp.from(month.atDay(1).atStartOfDay(zone).toInstant());
+        Timestamp end = Timestamp.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList(LOCK_SQL, ROLLUP_LOCK_SPACE, monthKey(statMonth.toLocalDate()));
+            jdbcTemplate.update("DELETE FROM job_monthly_stats WHERE stat_month = ?", statMonth);
+            jdbcTemplate.update(REBUILD_SQL, statMonth, start, end, start, end);
+            jdbcTemplate.update(MARK_SQL, statMonth);
+        });
+    }
+
+    /**
+     * Dựng lại mọi tháng đã kết thúc; onlyMissing = true thì bỏ qua các tháng đã được đánh dấu.
+     *
+     * @return số tháng đã dựng
+     */
+    public int rebuildClosedMonths(boolean onlyMissing) {
+        Timestamp earliest = jdbcTemplate.queryForObject(EARLIEST_SQL, Timestamp.class);
+        if (earliest == null) {
+            return 0;
+        }
+        int rebuilt = 0;
+        YearMonth last = YearMonth.now().minusMonths(1);
+        for (YearMonth m = YearMonth.from(earliest.toLocalDateTime()); !m.isAfter(last); m = m.plusMonths(1)) {
+            if (onlyMissing && isRolledUp(m)) {
+                continue;
+            }
+            rebuild(m);
+            rebuilt++;
+        }
+        return rebuilt;
+    }
+
+    // Backfill các tháng chưa được dựng, chạy nền sau khi ứng dụng sẵn sàng
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            for (LocalDate statMonth : statsRepository.findMonthsMissingCompany()) {
+                rebuild(YearMonth.from(statMonth));
+            }
+            rebuildClosedMonths(true);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Hằng ngày dựng các tháng đã kết thúc chưa được đánh dấu: tháng vừa kết thúc (đối soát với các cập nhật tăng dần)
+    // và các tháng bị bỏ đánh dấu do upsert lỗi
+    @Scheduled(cron = "0 15 0 * * *")
+    public void rebuildMissingMonths() {
+        try {
+            rebuildClosedMonths(true);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int delta(Application.Status status, Application.Status target) {
+        return status == target ? 1 : 0;
+    }
+
+    private void add(Job job, Timestamp at, int applied, int approved, int rejected, int favorites) {
+        if (job == null || job.getJobId() == null || at == null) {
+            return;
+        }
+        LocalDate statMonth = YearMonth.from(at.toLocalDateTime()).atDay(1);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{UUID.randomUUID(), job.getJobId(), job.getCompanyId(), Date.valueOf(statMonth),
+                applied, approved, rejected, favorites});
+        record(rows);
+    }
+
+    /*
+     * Gọi trong transaction của thao tác ghi gốc: giữ khóa chia sẻ của các tháng bị ảnh hưởng đến khi commit
+     * và ghi nhận rebuilt_at hiện tại, upsert chạy sau commit (lỗi ở đây không làm hỏng thao tác chính).
+     * Nếu tháng đã được dựng lại giữa lúc commit và lúc upsert thì rebuild đã tính thay đổi này, không cộng thêm.
+     */
+    private void record(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            Map<LocalDate, Timestamp> versions = new HashMap<>();
+            for (LocalDate statMonth : months(rows)) {
+                versions.put(statMonth, lockMonth(statMonth));
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    upsert(rows, versions);
+                }
+            });
+        } else {
+            upsert(rows, null);
+        }
+    }
+
+    private void upsert(List<Object[]> rows, Map<LocalDate, Timestamp> versions) {
+        Set<LocalDate> months = months(rows);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object[]> pending = new ArrayList<>();
+                for (LocalDate statMonth : months) {
+                    Timestamp current = lockMonth(statMonth);
+                    if (versions != null && !Objects.equals(current, versions.get(statMonth))) {
+                        continue;
+                    }
+                    for (Object[] row : rows) {
+                        if (((Date) row[3]).toLocalDate().equals(statMonth)) {
+                            pending.add(row);
+                        }
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, pending);
+                }
+            });
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            // Số liệu của các tháng này không còn đúng: bỏ đánh dấu để ReportService đọc trực tiếp dữ liệu gốc
+            // và rebuildMissingMonths dựng lại khi tháng đã kết thúc
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (LocalDate statMonth : months) {
+                        jdbcTemplate.update("DELETE FROM report_rollup_months WHERE stat_month = ?", Date.valueOf(statMonth));
+                    }
+                });
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // Khóa chia sẻ theo tháng (tự nhả khi transaction kết thúc), trả về rebuilt_at hiện tại của tháng
+    private Timestamp lockMonth(LocalDate statMonth) {
+        jdbcTemplate.queryForList(LOCK_SHARED_SQL, ROLLUP_LOCK_SPACE, monthKey(statMonth));
+        List<Timestamp> rebuiltAt = jdbcTemplate.queryForList(
+                "SELECT rebuilt_at FROM report_rollup_months WHERE stat_month = ?", Timestamp.class, Date.valueOf(statMonth));
+        return rebuiltAt.isEmpty() ? null : rebuiltAt.get(0);
+    }
+
+    // Thứ tự tăng dần để các transaction luôn khóa các tháng theo cùng một thứ tự
+    private static Set<LocalDate> months(List<Object[]> rows) {
+        Set<LocalDate> months = new TreeSet<>();
+        for (Object[] row : rows) {
+            months.add(((Date) row[3]).toLocalDate());
+        }
+        return months;
+    }
+
+    private static int monthKey(LocalDate statMonth) {
+        return statMonth.getYear() * 100 + statMonth.getMonthValue();
+    }
+}
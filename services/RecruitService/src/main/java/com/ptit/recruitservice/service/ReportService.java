@@ -5,11 +5,12 @@ import com.ptit.recruitservice.dto.JobEngagementDTO;
 import com.ptit.recruitservice.dto.JobPerformanceDTO;
 import com.ptit.recruitservice.dto.MonthlyRecruitmentSummaryDTO;
 import com.ptit.recruitservice.entity.Job;
+import com.ptit.recruitservice.entity.JobMonthlyStats;
 import com.ptit.recruitservice.repository.ApplicationRepository;
 import com.ptit.recruitservice.repository.FavoriteJobRepository;
 import com.ptit.recruitservice.repository.JobRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -20,8 +21,11 @@ import java.time.LocalTime;
 import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 @Service
 public class ReportService {
@@ -35,6 +39,9 @@ public class ReportService {
     @Autowired
     private FavoriteJobRepository favoriteJobRepository;
 
+    @Autowired
+    private ReportRollupService rollupService;
+
     private Timestamp[] monthRange(int year, int month) {
         YearMonth ym = YearMonth.of(year, month);
         LocalDateTime start = ym.atDay(1).atStartOfDay();
@@ -43,68 +50,131 @@ public class ReportService {
         return new Timestamp[]{ Timestamp.from(start.atZone(zone).toInstant()), Timestamp.from(end.atZone(zone).toInstant()) };
     }
 
-    public MonthlyRecruitmentSummaryDTO getMonthlySummary(int year, int month) {
+    // Tháng đã kết thúc và đã được dựng job_monthly_stats thì đọc từ bảng cộng dồn thay vì quét dữ liệu gốc
+    private boolean useRollup(int year, int month) {
+        YearMonth ym = YearMonth.of(year, month);
+        return ym.isBefore(YearMonth.now()) && rollupService.isRolledUp(ym);
+    }
+
+    /*
+     * Mọi báo cáo đều giới hạn trong một công ty: điều kiện company_id nằm ngay trong các truy vấn tổng hợp
+     * (index jobs(company_id, created_at), applications(job_id, applied_at)), nên chi phí chỉ phụ thuộc dữ liệu của công ty đó.
+     */
+
+    public MonthlyRecruitmentSummaryDTO getMonthlySummary(UUID companyId, int year, int month) {
         Timestamp[] range = monthRange(year, month);
         Timestamp start = range[0], end = range[1];
 
-        long openJobs = jobRepository.countByStatusAndIsDeletedFalse(Job.Status.open);
-        long jobsCreated = jobRepository.countByCreatedAtBetween(start, end);
-        long jobsClosed = jobRepository.countByStatusAndCreatedAtBetween(Job.Status.closed, start, end);
+        // Số job phụ thuộc trạng thái hiện tại của job nên vẫn đếm trực tiếp (có index)
+        long openJobs = jobRepository.countByCompanyIdAndStatusAndIsDeletedFalse(companyId, Job.Status.open);
+        long jobsCreated = jobRepository.countByCompanyIdAndCreatedAtBetween(companyId, start, end);
+        long jobsClosed = jobRepository.countByCompanyIdAndStatusAndCreatedAtBetween(companyId, Job.Status.closed, start, end);
 
-        long totalApplied = applicationRepository.countByAppliedAtBetween(start, end);
-        long shortlisted = applicationRepository.countByStatusAndAppliedAtBetween(com.ptit.recruitservice.entity.Application.Status.approved, start, end); // mapping: approved -> shortlisted
-        long rejected = applicationRepository.countByStatusAndAppliedAtBetween(com.ptit.recruitservice.entity.Application.Status.rejected, start, end);
-        long hired = applicationRepository.countByStatusAndAppliedAtBetween(com.ptit.recruitservice.entity.Application.Status.approved, start, end);; // no hired concept in Application.Status in current model; keep 0
+        long totalApplied = 0, approved = 0, rejected = 0;
+        for (JobCounts c : countPerJob(companyId, year, month).values()) {
+            totalApplied += c.applied();
+            approved += c.approved();
+            rejected += c.rejected();
+        }
+        // shortlisted / hired: chưa có trạng thái riêng, cùng dùng approved
+        return new MonthlyRecruitmentSummaryDTO(openJobs, jobsCreated, jobsClosed, totalApplied, approved, rejected, approved);
+    }
 
-        return new MonthlyRecruitmentSummaryDTO(openJobs, jobsCreated, jobsClosed, totalApplied, shortlisted, rejected, hired);
+    // Số đếm theo job trong tháng: mỗi nguồn là một truy vấn GROUP BY, ghép lại trong bộ nhớ
+    private record JobCounts(long applied, long approved, long rejected, long favorites) {
+        static final JobCounts EMPTY = new JobCounts(0, 0, 0, 0);
     }
 
-    public List<JobPerformanceDTO> getJobPerformance(int year, int month) {
+    private Map<UUID, JobCounts> countPerJob(UUID companyId, int year, int month) {
+        Map<UUID, JobCounts> counts = new HashMap<>();
+        if (useRollup(year, month)) {
+            for (JobMonthlyStats s : rollupService.getStats(companyId, YearMonth.of(year, month))) {
+                counts.put(s.getJobId(), new JobCounts(s.getApplied(), s.getApproved(), s.getRejected(), s.getFavorites()));
+            }
+            return counts;
+        }
         Timestamp[] range = monthRange(year, month);
         Timestamp start = range[0], end = range[1];
+        for (Object[] row : applicationRepository.countPerJobBetween(companyId, start, end,
+                com.ptit.recruitservice.entity.Application.Status.approved,
+                com.ptit.recruitservice.entity.Application.Status.rejected)) {
+            counts.put((UUID) row[0], new JobCounts(toLong(row[1]), toLong(row[2]), toLong(row[3]), 0));
+        }
+        for (Object[] row : favoriteJobRepository.countPerJobBetween(companyId, start, end)) {
+            JobCounts c = counts.getOrDefault((UUID) row[0], JobCounts.EMPTY);
+            counts.put((UUID) row[0], new JobCounts(c.applied(), c.approved(), c.rejected(), toLong(row[1])));
+        }
+        return counts;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
 
-        List<Job> jobs = jobRepository.findByIsDeletedFalse();
-        List<JobPerformanceDTO> out = new ArrayList<>();
-        for (Job j : jobs) {
-            UUID jid = j.getJobId();
-            long applied = applicationRepository.countByJob_JobIdAndAppliedAtBetween(jid, start, end);
-            long shortlisted = applicationRepository.countByJob_JobIdAndStatusAndAppliedAtBetween(jid, com.ptit.recruitservice.entity.Application.Status.approved, start, end);
-            long rejected = applicationRepository.countByJob_JobIdAndStatusAndAppliedAtBetween(jid, com.ptit.recruitservice.entity.Application.Status.rejected, start, end);
-            long hired = applicationRepository.countByJob_JobIdAndStatusAndAppliedAtBetween(jid, com.ptit.recruitservice.entity.Application.Status.approved, start, end);
-            long favorite = favoriteJobRepository.countByJob_JobIdAndCreatedAtBetween(jid, start, end);
-            out.add(new JobPerformanceDTO(jid.toString(), j.getTitle(), applied, shortlisted, rejected, hired, favorite));
+    public List<JobPerformanceDTO> getJobPerformance(UUID companyId, int year, int month) {
+        Map<UUID, JobCounts> counts = countPerJob(companyId, year, month);
+
+        List<Object[]> jobs = jobRepository.findIdAndTitleByCompanyId(companyId);
+        List<JobPerformanceDTO> out = new ArrayList<>(jobs.size());
+        for (Object[] j : jobs) {
+            UUID jid = (UUID) j[0];
+            JobCounts c = counts.getOrDefault(jid, JobCounts.EMPTY);
+            // shortlisted / hired: chưa có trạng thái riêng, cùng dùng approved như báo cáo tháng
+            out.add(new JobPerformanceDTO(jid.toString(), (String) j[1], c.applied(), c.approved(), c.rejected(), c.approved(), c.favorites()));
         }
         return out;
     }
 
-    public Page<com.ptit.recruitservice.entity.Application> getApplicantsRaw(int year, int month, Pageable pageable) {
+    /**
+     * Duyệt ứng viên của tháng theo từng job của công ty, mỗi job đọc theo lô chunkSize bằng keyset trên
+     * (appliedAt, applicationId) qua index (job_id, applied_at, application_id). Mỗi lô là một truy vấn projection
+     * riêng nên bộ nhớ không phụ thuộc tổng số đơn. Trả về false từ consumer để dừng sớm.
+     */
+    public void forEachApplicantChunk(UUID companyId, int year, int month, int chunkSize, Predicate<List<ApplicantDTO>> consumer) {
         Timestamp[] range = monthRange(year, month);
-        return applicationRepository.findByAppliedAtBetween(range[0], range[1], pageable);
+        Pageable limit = PageRequest.of(0, chunkSize);
+        for (Object[] job : jobRepository.findIdAndTitleByCompanyId(companyId)) {
+            UUID jobId = (UUID) job[0];
+            List<Object[]> rows = applicationRepository.findApplicantRows(jobId, range[0], range[1], limit);
+            while (!rows.isEmpty()) {
+                List<ApplicantDTO> chunk = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    chunk.add(new ApplicantDTO((UUID) row[0], (UUID) row[1], (String) row[2], (UUID) row[3], (String) row[4],
+                            row[5] != null ? ((com.ptit.recruitservice.entity.Application.Status) row[5]).name() : null,
+                            (Timestamp) row[6]));
+                }
+                if (!consumer.test(chunk)) {
+                    return;
+                }
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+                ApplicantDTO last = chunk.get(chunk.size() - 1);
+                rows = applicationRepository.findApplicantRowsAfter(jobId, range[0], range[1], last.getAppliedAt(), last.getApplicationId(), limit);
+            }
+        }
     }
 
-    public Page<com.ptit.recruitservice.dto.ApplicantDTO> getApplicants(int year, int month, UUID jobId, Pageable pageable) {
-        Timestamp[] range = monthRange(year, month);
-        // Map Application entities to ApplicantDTO
-        Page<com.ptit.recruitservice.entity.Application> page = applicationRepository.findByAppliedAtBetween(range[0], range[1], pageable);
-        return page.map(a -> new ApplicantDTO(a.getApplicationId(), a.getCv() != null ? a.getCv().getCvId() : null,
-                a.getCv() != null ? a.getCv().getTitle() : null,
-                a.getJob() != null ? a.getJob().getJobId() : null,
-                a.getJob() != null ? a.getJob().getTitle() : null,
-                a.getStatus() != null ? a.getStatus().name() : null,
-                a.getAppliedAt()));
+    // Tối đa limit ứng viên đầu tiên (cho PDF, vốn dựng toàn bộ trong bộ nhớ)
+    public List<ApplicantDTO> getApplicants(UUID companyId, int year, int month, int limit) {
+        List<ApplicantDTO> out = new ArrayList<>();
+        forEachApplicantChunk(companyId, year, month, Math.min(limit, 1000), chunk -> {
+            out.addAll(chunk.subList(0, Math.min(chunk.size(), limit - out.size())));
+            return out.size() < limit;
+        });
+        return out;
     }
 
-    public List<JobEngagementDTO> getJobEngagement(int year, int month) {
-        Timestamp[] range = monthRange(year, month);
-        Timestamp start = range[0], end = range[1];
-        List<Job> jobs = jobRepository.findByIsDeletedFalse();
-        List<JobEngagementDTO> out = new ArrayList<>();
-        for (Job j : jobs) {
-            UUID jid = j.getJobId();
-            long applies = applicationRepository.countByJob_JobIdAndAppliedAtBetween(jid, start, end);
-            long favorites = favoriteJobRepository.countByJob_JobIdAndCreatedAtBetween(jid, start, end);
-            long interest = favorites + 2 * applies;
-            out.add(new JobEngagementDTO(jid.toString(), j.getTitle(), favorites, applies, interest));
+    public List<JobEngagementDTO> getJobEngagement(UUID companyId, int year, int month) {
+        Map<UUID, JobCounts> counts = countPerJob(companyId, year, month);
+
+        List<Object[]> jobs = jobRepository.findIdAndTitleByCompanyId(companyId);
+        List<JobEngagementDTO> out = new ArrayList<>(jobs.size());
+        for (Object[] j : jobs) {
+            UUID jid = (UUID) j[0];
+            JobCounts c = counts.getOrDefault(jid, JobCounts.EMPTY);
+            long interest = c.favorites() + 2 * c.applied();
+            out.add(new JobEngagementDTO(jid.toString(), (String) j[1], c.favorites(), c.applied(), interest));
         }
         return out;
     }
@@ -2,91 +2,220 @@ package com.ptit.recruitservice.service;
 
 import com.ptit.recruitservice.entity.ReportHistory;
 import com.ptit.recruitservice.enums.ReportType;
+import com.ptit.recruitservice.repository.PrecomputedReportRepository;
+import com.ptit.recruitservice.repository.ReportCacheEntryRepository;
 import com.ptit.recruitservice.repository.ReportHistoryRepository;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
 public class ReportStorageService {
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
 
     private final MinioClient minioClient;
     private final String bucketName;
     private final String minioUrl;
     private final ReportHistoryRepository historyRepository;
+    private final PrecomputedReportRepository precomputedRepository;
+    private final ReportCacheEntryRepository cacheRepository;
+    private final long partSize;
+    private final ExecutorService writerExecutor;
 
     public ReportStorageService(MinioClient minioClient,
                                 @Value("${minio.bucket}") String bucketName,
                                 @Value("${minio.url}") String minioUrl,
-                                ReportHistoryRepository historyRepository) {
+                                @Value("${report.upload.part-size:10485760}") long partSize,
+                                ReportHistoryRepository historyRepository,
+                                PrecomputedReportRepository precomputedRepository,
+                                ReportCacheEntryRepository cacheRepository) {
         this.minioClient = minioClient;
         this.bucketName = bucketName;
         this.minioUrl = minioUrl;
         this.historyRepository = historyRepository;
+        this.precomputedRepository = precomputedRepository;
+        this.cacheRepository = cacheRepository;
+        // MinIO yêu cầu part tối thiểu 5MB
+        this.partSize = Math.max(partSize, 5L * 1024 * 1024);
+        this.writerExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "report-writer");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
-    // include year and month so caller can control the report period
-    public String uploadAndSaveHistory(byte[] data, String contentType, String prefix, UUID userId, List<ReportType> types, String format, int year, int month) {
-        if (data == null || data.length == 0) throw new IllegalArgumentException("Empty report data");
-        try (ByteArrayInputStream is = new ByteArrayInputStream(data)) {
-            String ext = "";
-            if (contentType != null && contentType.contains("pdf")) ext = ".pdf"; else ext = ".xlsx";
-            String objectName = (prefix == null ? "reports/" : (prefix.endsWith("/") ? prefix : prefix + "/"))
-                    + "report-" + UUID.randomUUID() + ext;
+    @PreDestroy
+    public void shutdown() {
+        writerExecutor.shutdownNow();
+    }
 
+    /**
+     * Ghi báo cáo thẳng vào upload MinIO: writer chạy trên luồng riêng và ghi vào một pipe,
+     * putObject đọc đầu kia với kích thước không biết trước và gửi theo từng part report.upload.part-size,
+     * nên bộ nhớ chỉ cần một part thay vì toàn bộ file.
+     * Nếu writer lỗi giữa chừng, đầu đọc báo lỗi thay vì EOF để MinIO không hoàn tất một object bị cắt cụt.
+     */
+    public String streamUpload(ReportWriter writer, String contentType, String prefix) {
+        String objectName = objectName(prefix, contentType);
+        AtomicReference<Throwable> writeFailure = new AtomicReference<>();
+        Future<?> producer = null;
+        try (PipedInputStream pipeIn = new PipedInputStream(PIPE_BUFFER_SIZE)) {
+            PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+            producer = writerExecutor.submit(() -> {
+                try {
+                    writer.writeTo(pipeOut);
+                } catch (Throwable t) {
+                    // Ghi nhận lỗi trước khi đóng pipe để đầu đọc không thấy EOF "bình thường"
+                    writeFailure.compareAndSet(null, t);
+                } finally {
+                    closeQuietly(pipeOut);
+                }
+            });
             PutObjectArgs args = PutObjectArgs.builder()
                     .bucket(bucketName)
                     .object(objectName)
-                    .stream(is, data.length, -1)
+                    .stream(new FailFastInputStream(pipeIn, writeFailure), -1, partSize)
                     .contentType(contentType != null ? contentType : "application/octet-stream")
                     .build();
             minioClient.putObject(args);
-
-            String url = objectName;
-
-            // Persist history
-            ReportHistory h = new ReportHistory();
-            h.setUserId(userId);
-            // join types into comma-separated (keys)
-            String typeStr = types == null || types.isEmpty() ? "all" : String.join(",", types.stream().map(ReportType::key).toList());
-            h.setReportType(typeStr);
-
-            // Build Vietnamese report name: "Báo cáo {type_vn} {month}/{year}"
-            int m = month;
-            int y = year;
-            String typeVn;
-            if (types == null || types.isEmpty()) {
-                typeVn = ReportType.ALL.vn();
-            } else if (types.size() == 1) {
-                typeVn = types.get(0).vn();
-            } else {
-                typeVn = types.stream().map(ReportType::vn).collect(Collectors.joining(", "));
+            producer.get();
+            if (writeFailure.get() != null) {
+                throw new IOException(writeFailure.get().getMessage(), writeFailure.get());
             }
-            String reportName = "Báo cáo " + typeVn + " " + m + "/" + y;
-            h.setReportName(reportName);
-
-            h.setCreatedAt(Timestamp.from(Instant.now()));
-            h.setFileFormat(format);
-            h.setFileUrl(url);
-            historyRepository.save(h);
-
-            return url;
+            return objectName;
         } catch (Exception e) {
+            if (producer != null) {
+                producer.cancel(true);
+            }
             throw new RuntimeException("Failed to upload report to MinIO: " + e.getMessage(), e);
         }
     }
 
+    @FunctionalInterface
+    public interface ReportWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private String objectName(String prefix, String contentType) {
+        String ext = contentType != null && contentType.contains("pdf") ? ".pdf" : ".xlsx";
+        return (prefix == null ? "reports/" : (prefix.endsWith("/") ? prefix : prefix + "/"))
+                + "report-" + UUID.randomUUID() + ext;
+    }
+
+    public String saveHistory(String objectName, UUID userId, List<ReportType> types, String format, int year, int month) {
+        String url = objectName;
+
+        // Persist history
+        ReportHistory h = newHistory(userId, types, format, year, month);
+        h.setStatus(ReportHistory.Status.done);
+        h.setCompletedAt(h.getCreatedAt());
+        h.setFileUrl(url);
+        historyRepository.save(h);
+
+        return url;
+    }
+
+    /**
+     * Bản ghi lịch sử (chưa lưu) với tên và loại báo cáo; dùng chung cho xuất đồng bộ và bất đồng bộ.
+     */
+    public ReportHistory newHistory(UUID userId, List<ReportType> types, String format, int year, int month) {
+        ReportHistory h = new ReportHistory();
+        h.setUserId(userId);
+        // join types into comma-separated (keys)
+        String typeStr = types == null || types.isEmpty() ? "all" : String.join(",", types.stream().map(ReportType::key).toList());
+        h.setReportType(typeStr);
+
+        // Build Vietnamese report name: "Báo cáo {type_vn} {month}/{year}"
+        int m = month;
+        int y = year;
+        String typeVn;
+        if (types == null || types.isEmpty()) {
+            typeVn = ReportType.ALL.vn();
+        } else if (types.size() == 1) {
+            typeVn = types.get(0).vn();
+        } else {
+            typeVn = types.stream().map(ReportType::vn).collect(Collectors.joining(", "));
+        }
+        String reportName = "Báo cáo " + typeVn + " " + m + "/" + y;
+        h.setReportName(reportName);
+
+        h.setCreatedAt(Timestamp.from(Instant.now()));
+        h.setFileFormat(format);
+        return h;
+    }
+
+    // Object do worker sinh ra nhưng bản ghi lịch sử đã bị xóa / đánh dấu thất bại: xóa nếu không dùng chung
+    public void removeOrphanObject(String objectName) {
+        if (objectName == null || objectName.isBlank() || isSharedObject(objectName)) {
+            return;
+        }
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucketName).object(objectName).build());
+        } catch (Exception ignored) {
+            // object mồ côi chỉ tốn dung lượng, không ảnh hưởng người dùng
+        }
+    }
+
+    private boolean isSharedObject(String objectName) {
+        return precomputedRepository.existsByObjectName(objectName) || cacheRepository.existsByObjectName(objectName);
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // pipe đã đóng
+        }
+    }
+
+    // Khi pipe kết thúc mà writer đã lỗi thì ném IOException thay vì trả EOF
+    private static final class FailFastInputStream extends FilterInputStream {
+        private final AtomicReference<Throwable> failure;
+
+        FailFastInputStream(InputStream in, AtomicReference<Throwable> failure) {
+            super(in);
+            this.failure = failure;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return check(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return check(super.read(b, off, len));
+        }
+
+        private int check(int n) throws IOException {
+            if (n < 0 && failure.get() != null) {
+                throw new IOException("Report generation failed", failure.get());
+            }
+            return n;
+        }
+    }
+
     // Delete history and underlying object; enforce ownership
     public void deleteHistory(UUID id, UUID userId) {
         ReportHistory history = historyRepository.findById(id)
@@ -97,7 +226,8 @@ public class ReportStorageService {
         }
 
         String objectName = history.getFileUrl();
-        if (objectName != null && !objectName.isBlank()) {
+        // Báo cáo sinh sẵn / đã cache dùng chung cho mọi lần xuất, không xóa theo lịch sử
+        if (objectName != null && !objectName.isBlank() && !isSharedObject(objectName)) {
             try {
                 minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucketName).object(objectName).build());
             } catch (Exception ignored) {
@@ -0,0 +1,142 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.entity.GroupJobTag;
+import com.ptit.recruitservice.entity.JobTag;
+import com.ptit.recruitservice.exception.ResourceNotFoundException;
+import com.ptit.recruitservice.repository.GroupJobTagRepository;
+import com.ptit.recruitservice.repository.JobTagRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bộ nhớ đệm toàn bộ danh mục JobTag / GroupJobTag.
+ * Mỗi lần nạp tạo ra một snapshot bất biến và thay thế nguyên khối, nên người đọc không cần khóa.
+ * JobTagService / GroupJobTagService gọi {@link #invalidate()} sau khi ghi để nạp lại.
+ */
+@Service
+public class TagDictionaryService {
+    @Autowired
+    private JobTagRepository jobTagRepository;
+    @Autowired
+    private GroupJobTagRepository groupJobTagRepository;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(Map<UUID, JobTag> jobTags, Map<UUID, GroupJobTag> groupJobTags,
+                            List<JobTag> activeJobTags, List<GroupJobTag> activeGroupJobTags) {
+    }
+
+    public List<JobTag> getActiveJobTags() {
+        return current().activeJobTags();
+    }
+
+    public List<GroupJobTag> getActiveGroupJobTags() {
+        return current().activeGroupJobTags();
+    }
+
+    /**
+     * Trả về các thẻ theo đúng thứ tự id truyền vào; báo lỗi một lần với tất cả id không tồn tại.
+     */
+    public List<JobTag> requireJobTags(Collection<UUID> ids) {
+        Snapshot s = current();
+        if (!s.jobTags().keySet().containsAll(ids)) {
+            // Có thể thẻ vừa được tạo ở instance khác: nạp lại một lần trước khi báo lỗi
+            s = refresh();
+        }
+        List<UUID> missing = missing(ids, s.jobTags());
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Không tìm thấy thẻ công việc này: " + missing);
+        }
+        return lookup(ids, s.jobTags());
+    }
+
+    public List<GroupJobTag> requireGroupJobTags(Collection<UUID> ids) {
+        Snapshot s = current();
+        if (!s.groupJobTags().keySet().containsAll(ids)) {
+            s = refresh();
+        }
+        List<UUID> missing = missing(ids, s.groupJobTags());
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Không tìm thấy tên ngành nghề: " + missing);
+        }
+        return lookup(ids, s.groupJobTags());
+    }
+
+    /**
+     * Nạp lại sau khi transaction hiện tại commit (hoặc ngay lập tức nếu không có transaction),
+     * để snapshot không bao giờ chứa dữ liệu của một thao tác ghi bị rollback.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    // Đồng bộ định kỳ với các thay đổi từ instance khác
+    @Scheduled(fixedDelayString = "${tag.dictionary.refresh-ms:300000}", initialDelayString = "${tag.dictionary.refresh-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        return s != null ? s : refresh();
+    }
+
+    private synchronized Snapshot refresh() {
+        List<JobTag> jobTags = jobTagRepository.findAll();
+        List<GroupJobTag> groupJobTags = groupJobTagRepository.findAll();
+        Snapshot s = new Snapshot(
+                index(jobTags, JobTag::getJobTagId),
+                index(groupJobTags, GroupJobTag::getGroupTagId),
+                jobTags.stream().filter(t -> !Boolean.TRUE.equals(t.getIsDeleted())).toList(),
+                groupJobTags.stream().filter(t -> !Boolean.TRUE.equals(t.getIsDeleted())).toList());
+        snapshot = s;
+        return s;
+    }
+
+    private static <T> Map<UUID, T> index(List<T> rows, Function<T, UUID> idOf) {
+        Map<UUID, T> map = new LinkedHashMap<>();
+        for (T row : rows) {
+            map.put(idOf.apply(row), row);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static List<UUID> missing(Collection<UUID> ids, Map<UUID, ?> map) {
+        List<UUID> out = new ArrayList<>();
+        for (UUID id : ids) {
+            if (!map.containsKey(id)) {
+                out.add(id);
+            }
+        }
+        return out;
+    }
+
+    private static <T> List<T> lookup(Collection<UUID> ids, Map<UUID, T> map) {
+        List<T> out = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            out.add(map.get(id));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ptit.recruitservice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor cho phân trang keyset theo (thời điểm tạo, id), sắp xếp giảm dần.
+ * Client chỉ nhận chuỗi base64 "opaque" và gửi lại ở tham số after.
+ */
+public final class KeysetCursor {
+    /** Số bản ghi tối đa của một trang cursor. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final Timestamp timestamp;
+    private final UUID id;
+
+    private KeysetCursor(Timestamp timestamp, UUID id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public Timestamp getTimestamp() {
+        return timestamp;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public static String encode(Timestamp timestamp, UUID id) {
+        String raw = timestamp.toInstant().toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** size phải nằm trong [1, MAX_PAGE_SIZE], nếu không trả về 400 thay vì lỗi 500 khi cắt trang. */
+    public static int checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size phải nằm trong khoảng 1.." + MAX_PAGE_SIZE + ": " + size);
+        }
+        return size;
+    }
+
+    /** Trả về null khi after rỗng (trang đầu tiên). */
+    public static KeysetCursor decode(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new KeysetCursor(Timestamp.from(Instant.parse(raw.substring(0, sep))), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ: " + after);
+        }
+    }
+}
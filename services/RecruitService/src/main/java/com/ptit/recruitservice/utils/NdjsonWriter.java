@@ -0,0 +1,28 @@
+package com.ptit.recruitservice.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Ghi từng đối tượng thành một dòng JSON (application/x-ndjson) ngay khi có, không gom cả danh sách trong heap.
+ */
+public final class NdjsonWriter {
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+        this.out = out;
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(Object row) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(row));
+        out.write('\n');
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ptit.recruitservice.utils;
+
+import org.apache.fontbox.ttf.CmapLookup;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Font dùng chung cho các báo cáo PDF.
+ * File TTF chỉ được đọc và phân tích một lần cho cả tiến trình; mỗi tài liệu tạo một PDType0Font
+ * (nhúng subset) từ bản đã phân tích và dùng chung cho mọi phần của tài liệu đó.
+ * Độ rộng từng ký tự được cache để đo / cắt chữ theo độ rộng cột mà không phải tra font lại.
+ */
+public final class PdfFonts {
+    private static final String LEXEND_PATH = "/fonts/Lexend-Regular.ttf";
+    private static final String ELLIPSIS = "...";
+
+    private static volatile TrueTypeFont lexend;
+    private static volatile CmapLookup lexendCmap;
+    private static volatile float unitsPerEm;
+    // code point -> độ rộng theo đơn vị glyph (1/1000 cỡ chữ)
+    private static final Map<Integer, Float> WIDTHS = new ConcurrentHashMap<>();
+
+    private PdfFonts() {
+    }
+
+    public static PDType0Font lexend(PDDocument doc) throws IOException {
+        return PDType0Font.load(doc, lexendTtf(), true);
+    }
+
+    public static float stringWidth(String text, float fontSize) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        float units = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            units += charWidth(cp);
+            i += Character.charCount(cp);
+        }
+        return units / 1000 * fontSize;
+    }
+
+    /**
+     * Cắt chuỗi (thêm "...") để vừa maxWidth ở cỡ chữ fontSize.
+     */
+    public static String fitToWidth(String text, float maxWidth, float fontSize) {
+        if (text == null) {
+            return "";
+        }
+        if (stringWidth(text, fontSize) <= maxWidth) {
+            return text;
+        }
+        float limit = maxWidth - stringWidth(ELLIPSIS, fontSize);
+        float used = 0;
+        int end = 0;
+        while (end < text.length()) {
+            int cp = text.codePointAt(end);
+            float w = charWidth(cp) / 1000 * fontSize;
+            if (used + w > limit) {
+                break;
+            }
+            used += w;
+            end += Character.charCount(cp);
+        }
+        return text.substring(0, end) + ELLIPSIS;
+    }
+
+    private static float charWidth(int codePoint) {
+        return WIDTHS.computeIfAbsent(codePoint, cp -> {
+            try {
+                lexendTtf();
+                int gid = lexendCmap.getGlyphId(cp);
+                return lexend.getAdvanceWidth(gid) * 1000f / unitsPerEm;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static TrueTypeFont lexendTtf() throws IOException {
+        TrueTypeFont ttf = lexend;
+        if (ttf == null) {
+            synchronized (PdfFonts.class) {
+                ttf = lexend;
+                if (ttf == null) {
+                    try (InputStream in = PdfFonts.class.getResourceAsStream(LEXEND_PATH)) {
+                        if (in == null) {
+                            throw new IOException("Không tìm thấy font " + LEXEND_PATH);
+                        }
+                        ttf = new TTFParser().parse(in);
+                    }
+                    lexendCmap = ttf.getUnicodeCmapLookup();
+                    unitsPerEm = ttf.getUnitsPerEm();
+                    lexend = ttf;
+                }
+            }
+        }
+        return ttf;
+    }
+}
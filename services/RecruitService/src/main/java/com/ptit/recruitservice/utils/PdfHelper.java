@@ -5,7 +5,6 @@ import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 
 public class PdfHelper {
@@ -19,10 +18,13 @@ public class PdfHelper {
     private float cursorY;
 
     public PdfHelper(PDDocument doc) throws IOException {
-        this.doc = doc;
+        this(doc, PdfFonts.lexend(doc));
+    }
 
-        InputStream fontStream = getClass().getResourceAsStream("/fonts/Lexend-Regular.ttf");
-        this.font = PDType0Font.load(doc, fontStream);
+    // Dùng chung một font (một subset nhúng) cho mọi phần của cùng tài liệu
+    public PdfHelper(PDDocument doc, PDType0Font font) throws IOException {
+        this.doc = doc;
+        this.font = font;
 
         newPage();
     }
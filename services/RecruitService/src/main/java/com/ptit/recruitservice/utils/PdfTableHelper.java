@@ -215,7 +215,6 @@ import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
 import java.awt.Color;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 
 public class PdfTableHelper {
@@ -236,9 +235,13 @@ public class PdfTableHelper {
     private boolean pageHasContent = false; // 👉 TRACK
 
     public PdfTableHelper(PDDocument doc) throws IOException {
+        this(doc, PdfFonts.lexend(doc));
+    }
+
+    // Dùng chung một font (một subset nhúng) cho mọi phần của cùng tài liệu
+    public PdfTableHelper(PDDocument doc, PDType0Font font) throws IOException {
         this.doc = doc;
-        InputStream fontStream = getClass().getResourceAsStream("/fonts/Lexend-Regular.ttf");
-        this.font = PDType0Font.load(doc, fontStream);
+        this.font = font;
         createNewPage();
     }
 
@@ -337,7 +340,7 @@ public class PdfTableHelper {
             cs.beginText();
             cs.setFont(font, 11);
             cs.newLineAtOffset(x + 2, cursorY - 15);
-            cs.showText(headers.get(i));
+            cs.showText(fitCell(headers.get(i), i == 0 ? firstColWidth : otherColWidth, 11));
             cs.endText();
         }
 
@@ -361,7 +364,7 @@ public class PdfTableHelper {
             cs.beginText();
             cs.setFont(font, 10);
             cs.newLineAtOffset(x + 2, cursorY - 15);
-            cs.showText(row.get(i));
+            cs.showText(fitCell(row.get(i), i == 0 ? firstColWidth : otherColWidth, 10));
             cs.endText();
         }
 
@@ -411,7 +414,7 @@ public class PdfTableHelper {
 
         cs.beginText();
         cs.setFont(font, 14);
-        float titleWidth = font.getStringWidth(title) / 1000 * 14;
+        float titleWidth = PdfFonts.stringWidth(title, 14);
         float centerX = (pageWidth - titleWidth) / 2;
         cs.newLineAtOffset(centerX, cursorY);
         cs.showText(title);
@@ -424,6 +427,11 @@ public class PdfTableHelper {
 
     /* ==================== UTILITY ==================== */
 
+    // Cắt nội dung ô theo độ rộng cột (trừ 2pt lề mỗi bên), dùng bảng độ rộng ký tự đã cache
+    private String fitCell(String text, float colWidth, float fontSize) {
+        return PdfFonts.fitToWidth(text, colWidth - 4, fontSize);
+    }
+
     private void drawLine(float x1, float y1, float x2, float y2) throws IOException {
         cs.moveTo(x1, y1);
         cs.lineTo(x2, y2);
@@ -0,0 +1,141 @@
+package com.ptit.recruitservice.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Gộp các lời gọi tra cứu đơn lẻ đến cùng lúc thành một lời gọi hàng loạt.
+ * Khóa đầu tiên mở một cửa sổ windowMillis; mọi khóa đến trong cửa sổ (tối đa maxBatchSize)
+ * được gửi chung một lần qua batchLoader, và mỗi người gọi nhận phần kết quả của mình.
+ * Luồng hẹn giờ chỉ cắt lô; batchLoader chạy trên một pool giới hạn maxConcurrentBatches luồng
+ * để một lời gọi chậm không giữ các cửa sổ sau. Người gọi chờ tối đa timeoutMillis.
+ */
+public final class RequestCollapser<K, V> {
+    private static final int MAX_QUEUED_BATCHES = 100;
+
+    private final Function<Set<K>, Map<K, V>> batchLoader;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor loaderExecutor;
+
+    private Map<K, CompletableFuture<V>> pending = new HashMap<>();
+
+    public RequestCollapser(String name, Function<Set<K>, Map<K, V>> batchLoader, long windowMillis, int maxBatchSize,
+                            long timeoutMillis, int maxConcurrentBatches) {
+        this.batchLoader = batchLoader;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+        this.loaderExecutor = new ThreadPoolExecutor(maxConcurrentBatches, maxConcurrentBatches, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_BATCHES), r -> {
+            Thread t = new Thread(r, name + "-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        this.loaderExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Trả về giá trị của key, hoặc null nếu batchLoader không trả về key đó.
+     * Lỗi của lời gọi hàng loạt được ném lại cho tất cả người gọi trong cùng cửa sổ.
+     */
+    public V get(K key) {
+        CompletableFuture<V> future;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(key, future);
+                try {
+                    if (pending.size() == 1) {
+                        scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                    } else if (pending.size() >= maxBatchSize) {
+                        scheduler.execute(this::flush);
+                    }
+                } catch (RejectedExecutionException e) {
+                    // Đã shutdown: không để lại future không bao giờ hoàn tất cho người gọi sau
+                    pending.remove(key);
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Tra cứu hàng loạt quá " + timeoutMillis + "ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bị ngắt khi chờ tra cứu hàng loạt", e);
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        loaderExecutor.shutdownNow();
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        RejectedExecutionException stopped = new RejectedExecutionException("RequestCollapser đã dừng");
+        batch.values().forEach(future -> future.completeExceptionally(stopped));
+    }
+
+    private void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            loaderExecutor.execute(() -> load(batch));
+        } catch (RejectedExecutionException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void load(Map<K, CompletableFuture<V>> batch) {
+        try {
+            Map<K, V> result = batchLoader.apply(batch.keySet());
+            batch.forEach((key, future) -> future.complete(result.get(key)));
+        } catch (Throwable e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            // Không future nào của lô được bỏ dở, kể cả khi lỗi xảy ra giữa chừng
+            for (CompletableFuture<V> future : batch.values()) {
+                if (!future.isDone()) {
+                    future.completeExceptionally(new IllegalStateException("Tra cứu hàng loạt kết thúc bất thường"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ptit.recruitservice.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: thêm / hủy một mốc thời gian là O(1), mỗi tick chỉ duyệt đúng một ô.
+ * Mốc xa hơn một vòng quay vẫn nằm trong ô của nó và được đưa lại cho đến vòng đến hạn.
+ * Mỗi khóa chỉ có một mốc hiệu lực; đặt lại mốc sẽ hủy mốc cũ.
+ * Các khóa đến hạn trong một tick được gửi cùng lúc cho onExpired trên luồng tick.
+ */
+public final class TimingWheel<K> {
+    private final long tickMillis;
+    private final int mask;
+    private final Queue<Entry<K>>[] buckets;
+    private final Map<K, Entry<K>> active = new ConcurrentHashMap<>();
+    private final Consumer<List<K>> onExpired;
+    private final ScheduledExecutorService ticker;
+
+    private volatile long processedTick;
+
+    private static final class Entry<K> {
+        final K key;
+        final long deadlineTick;
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, long tickMillis, int wheelSize, Consumer<List<K>> onExpired) {
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = (Queue<Entry<K>>[]) new Queue<?>[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.onExpired = onExpired;
+        this.processedTick = System.currentTimeMillis() / tickMillis;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void schedule(K key, long deadlineMillis) {
+        // Làm tròn lên: mốc không bao giờ được kích hoạt trước deadlineMillis
+        Entry<K> entry = new Entry<>(key, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        Entry<K> previous = active.put(key, entry);
+        if (previous != null) {
+            previous.done.set(true);
+        }
+        if (entry.deadlineTick <= processedTick) {
+            fire(List.of(entry));
+            return;
+        }
+        buckets[(int) (entry.deadlineTick & mask)].add(entry);
+        // Ô có thể vừa được duyệt xong trong lúc đang thêm: khi đó tự kích hoạt luôn
+        if (entry.deadlineTick <= processedTick) {
+            fire(List.of(entry));
+        }
+    }
+
+    public void cancel(K key) {
+        Entry<K> entry = active.remove(key);
+        if (entry != null) {
+            entry.done.set(true);
+        }
+    }
+
+    public int size() {
+        return active.size();
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    private void advance() {
+        try {
+            long target = System.currentTimeMillis() / tickMillis;
+            while (processedTick < target) {
+                long tick = processedTick + 1;
+                Queue<Entry<K>> bucket = buckets[(int) (tick & mask)];
+                List<Entry<K>> due = new ArrayList<>();
+                List<Entry<K>> later = new ArrayList<>();
+                Entry<K> entry;
+                while ((entry = bucket.poll()) != null) {
+                    if (entry.done.get()) {
+                        continue;
+                    }
+                    (entry.deadlineTick <= tick ? due : later).add(entry);
+                }
+                bucket.addAll(later);
+                processedTick = tick;
+                fire(due);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void fire(List<Entry<K>> entries) {
+        List<K> keys = new ArrayList<>(entries.size());
+        for (Entry<K> entry : entries) {
+            if (entry.done.compareAndSet(false, true)) {
+                active.remove(entry.key, entry);
+                keys.add(entry.key);
+            }
+        }
+        if (!keys.isEmpty()) {
+            onExpired.accept(keys);
+        }
+    }
+}
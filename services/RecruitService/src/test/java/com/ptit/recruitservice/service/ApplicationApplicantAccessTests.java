@@ -0,0 +1,109 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.dto.CompanyResponse;
+import com.ptit.recruitservice.entity.Job;
+import com.ptit.recruitservice.exception.ResourceNotFoundException;
+import com.ptit.recruitservice.repository.ApplicationRepository;
+import com.ptit.recruitservice.repository.JobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Danh sách ứng viên theo trang: nhà tuyển dụng chỉ xem được job của công ty mình, ADMIN xem được mọi job.
+ */
+@ExtendWith(MockitoExtension.class)
+class ApplicationApplicantAccessTests {
+    @Mock
+    private ApplicationRepository applicationRepository;
+    @Mock
+    private JobRepository jobRepository;
+    @Mock
+    private CompanyResolver companyResolver;
+    @InjectMocks
+    private ApplicationService applicationService;
+
+    private final UUID employerId = UUID.randomUUID();
+    private final UUID companyId = UUID.randomUUID();
+    private Job job;
+
+    @BeforeEach
+    void setUp() {
+        job = new Job();
+        job.setJobId(UUID.randomUUID());
+        job.setCompanyId(companyId);
+    }
+
+    @Test
+    void employerCanPageApplicantsOfOwnJob() {
+        when(jobRepository.findById(job.getJobId())).thenReturn(Optional.of(job));
+        when(companyResolver.getByUserId(employerId)).thenReturn(company(companyId));
+        when(applicationRepository.findApplicantSummaries(eq(job.getJobId()), any(), any())).thenReturn(Page.empty());
+
+        applicationService.getApplicationsByJobIdPaged(job.getJobId(), null, 0, 10, "appliedAt", "desc", employerId, false);
+
+        verify(applicationRepository).findApplicantSummaries(eq(job.getJobId()), any(), any());
+    }
+
+    @Test
+    void employerCannotPageApplicantsOfAnotherCompany() {
+        when(jobRepository.findById(job.getJobId())).thenReturn(Optional.of(job));
+        when(companyResolver.getByUserId(employerId)).thenReturn(company(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> applicationService.getApplicationsByJobIdPaged(
+                job.getJobId(), null, 0, 10, "appliedAt", "desc", employerId, false))
+                .isInstanceOf(AccessDeniedException.class);
+        verify(applicationRepository, never()).findApplicantSummaries(any(), any(), any());
+    }
+
+    @Test
+    void employerWithoutCompanyIsRejected() {
+        when(jobRepository.findById(job.getJobId())).thenReturn(Optional.of(job));
+        when(companyResolver.getByUserId(employerId)).thenReturn(null);
+
+        assertThatThrownBy(() -> applicationService.getApplicationsByJobIdPaged(
+                job.getJobId(), null, 0, 10, "appliedAt", "desc", employerId, false))
+                .isInstanceOf(AccessDeniedException.class);
+        verify(applicationRepository, never()).findApplicantSummaries(any(), any(), any());
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        when(jobRepository.findById(job.getJobId())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> applicationService.getApplicationsByJobIdPaged(
+                job.getJobId(), null, 0, 10, "appliedAt", "desc", employerId, false))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void adminSkipsCompanyCheck() {
+        when(applicationRepository.findApplicantSummaries(eq(job.getJobId()), any(), any())).thenReturn(Page.empty());
+
+        applicationService.getApplicationsByJobIdPaged(job.getJobId(), null, 0, 10, "appliedAt", "desc", UUID.randomUUID(), true);
+
+        verifyNoInteractions(companyResolver, jobRepository);
+    }
+
+    private static CompanyResponse company(UUID companyId) {
+        CompanyResponse company = new CompanyResponse();
+        company.setCompanyId(companyId);
+        return company;
+    }
+}
@@ -0,0 +1,202 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.config.EventPublisher;
+import com.ptit.recruitservice.dto.ApplicationResponse;
+import com.ptit.recruitservice.dto.CompanyResponse;
+import com.ptit.recruitservice.dto.CursorPageResponse;
+import com.ptit.recruitservice.dto.UserResponse;
+import com.ptit.recruitservice.entity.Application;
+import com.ptit.recruitservice.entity.CV;
+import com.ptit.recruitservice.entity.Job;
+import com.ptit.recruitservice.feign.UserServiceFeign;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Số câu SQL của các luồng đọc / ghi đơn ứng tuyển không được tăng theo số đơn (N+1).
+ * Dữ liệu gồm nhiều job, nhiều CV; nếu entity graph bị bỏ hoặc mapping chạm thêm quan hệ lazy
+ * thì số câu lệnh tăng theo số dòng và test thất bại.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "internal.secret=test",
+        "external.user.service.url=http://localhost",
+        "log.exchange=log.exchange",
+        "log.activity.routing-key=log.activity",
+        "notification.exchange=notification.exchange",
+        "notification.application.status.routing-key=notification.application.status",
+        "notification.application.created.routing-key=notification.application.created",
+        "embedding.exchange=embedding.exchange",
+        "embedding.application.routing-key=embedding.application",
+        "embedding.application.delete.routing-key=embedding.delete.application",
+        "embedding.application.status.routing-key=embedding.status.application",
+        "recruit.exchange=recruit.exchange",
+        "recruit.application.created.routing-key=application.created"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(ApplicationService.class)
+class ApplicationQueryCountTests {
+    private static final int JOBS = 4;
+    private static final int CANDIDATES = 3;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ApplicationService applicationService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private UserServiceFeign userServiceFeign;
+    @MockitoBean
+    private CompanyResolver companyResolver;
+    @MockitoBean
+    private ReportRollupService reportRollupService;
+    @MockitoBean
+    private JobCounterService jobCounterService;
+    @MockitoBean
+    private EventPublisher eventPublisher;
+
+    private final List<Job> jobs = new ArrayList<>();
+    private final List<CV> cvs = new ArrayList<>();
+    private final List<Application> applications = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        UUID companyId = UUID.randomUUID();
+        for (int i = 0; i < JOBS; i++) {
+            jobs.add(entityManager.persist(newJob(companyId, i)));
+        }
+        for (int i = 0; i < CANDIDATES; i++) {
+            cvs.add(entityManager.persist(newCv(i)));
+        }
+        long now = System.currentTimeMillis();
+        for (Job job : jobs) {
+            for (CV cv : cvs) {
+                Application application = new Application();
+                application.setJob(job);
+                application.setCv(cv);
+                application.setStatus(Application.Status.pending);
+                application.setIsDeleted(false);
+                application.setAppliedAt(new Timestamp(now - applications.size() * 1000L));
+                applications.add(entityManager.persist(application));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        when(userServiceFeign.getUserByUserId(any(), any())).thenReturn(new UserResponse());
+        when(companyResolver.getByCompanyId(any())).thenReturn(new CompanyResponse());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void candidateListLoadsJobsAndCvsInOneQuery() {
+        List<ApplicationResponse> responses = applicationService.getApplicationsForCandidate(cvs.get(0).getUserId());
+
+        assertThat(responses).hasSize(JOBS);
+        assertThat(responses).allSatisfy(r -> assertThat(r.getJob().getTitle()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void candidateCursorPageLoadsJobsAndCvsInOneQuery() {
+        CursorPageResponse<ApplicationResponse> page =
+                applicationService.getApplicationsForCandidateCursor(cvs.get(0).getUserId(), null, JOBS, false);
+
+        assertThat(page.getData()).hasSize(JOBS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void employerApplicantListLoadsCvsInOneQuery() {
+        List<ApplicationResponse> responses = applicationService.getApplicationsByJobId(jobs.get(0).getJobId());
+
+        assertThat(responses).hasSize(CANDIDATES);
+        assertThat(responses).allSatisfy(r -> assertThat(r.getCv().getTitle()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void employerApplicantPageDoesNotLoadPerRow() {
+        CompanyResponse company = new CompanyResponse();
+        company.setCompanyId(jobs.get(0).getCompanyId());
+        when(companyResolver.getByUserId(any())).thenReturn(company);
+
+        Page<ApplicationResponse> page = applicationService.getApplicationsByJobIdPaged(
+                jobs.get(0).getJobId(), null, 0, CANDIDATES - 1, "appliedAt", "desc", UUID.randomUUID(), false);
+
+        assertThat(page.getContent()).hasSize(CANDIDATES - 1);
+        assertThat(page.getTotalElements()).isEqualTo(CANDIDATES);
+        // job (kiểm tra công ty) + trang dữ liệu + count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void statusUpdateLocksLoadsAndUpdatesWithoutExtraQueries() {
+        Application target = applications.get(0);
+
+        ApplicationResponse response = applicationService.updateStatus(
+                target.getApplicationId(), Application.Status.approved, UUID.randomUUID());
+        entityManager.flush();
+
+        assertThat(response.getStatus()).isEqualTo(Application.Status.approved.name());
+        // khóa dòng + nạp đơn kèm job / CV + UPDATE
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    private static Job newJob(UUID companyId, int i) {
+        Job job = new Job();
+        job.setCompanyId(companyId);
+        job.setTitle("Job " + i);
+        job.setJobType(Job.JobType.full_time);
+        job.setStatus(Job.Status.open);
+        job.setStatusEmbedding(Job.StatusEmbedding.pending);
+        job.setIsDeleted(false);
+        job.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        return job;
+    }
+
+    private static CV newCv(int i) {
+        CV cv = new CV();
+        cv.setUserId(UUID.randomUUID());
+        cv.setTitle("CV " + i);
+        cv.setSourceType(CV.SourceType.upload);
+        cv.setStatusEmbedding(CV.StatusEmbedding.pending);
+        cv.setIsDeleted(false);
+        cv.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        return cv;
+    }
+}
@@ -0,0 +1,132 @@
+package com.ptit.recruitservice.service;
+
+import com.ptit.recruitservice.repository.PrecomputedReportRepository;
+import com.ptit.recruitservice.repository.ReportCacheEntryRepository;
+import com.ptit.recruitservice.repository.ReportHistoryRepository;
+import io.minio.MinioClient;
+import com.sun.management.ThreadMXBean;
+import io.minio.PutObjectArgs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * streamUpload với MinioClient giả: client giả đọc đầy từng part vào bộ đệm như MinIO
+ * và chỉ "hoàn tất" object khi đọc tới EOF bình thường.
+ */
+class ReportStorageServiceStreamUploadTests {
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+    private static final int CHUNK = 8 * 1024;
+    private static final long EXPORT_SIZE = 256L * 1024 * 1024;
+    // Một part, pipe và chi phí cố định; nếu báo cáo bị gom vào bộ nhớ thì lượng cấp phát tối thiểu bằng EXPORT_SIZE
+    private static final long ALLOCATION_BUDGET = 32L * 1024 * 1024;
+
+    private MinioClient minioClient;
+    private ReportStorageService storageService;
+
+    private final List<PutObjectArgs> calls = new ArrayList<>();
+    private final List<Long> completedObjects = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioClient = mock(MinioClient.class);
+        storageService = new ReportStorageService(minioClient, "reports", "http://minio", PART_SIZE,
+                mock(ReportHistoryRepository.class),
+                mock(PrecomputedReportRepository.class),
+                mock(ReportCacheEntryRepository.class));
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            calls.add(args);
+            completedObjects.add(consumeInParts(args.stream(), args.partSize()));
+            return null;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageService.shutdown();
+    }
+
+    @Test
+    void largeExportIsStreamedWithoutBufferingTheWholeFile() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        AtomicLong writerAllocated = new AtomicLong();
+
+        // Đo tổng byte được cấp phát trên luồng gọi (putObject giả chạy ở đây) và luồng writer:
+        // cận trên của lượng heap mà upload có thể giữ, không phụ thuộc thời điểm GC
+        long callerBefore = threads.getCurrentThreadAllocatedBytes();
+        String objectName = storageService.streamUpload(out -> {
+            long writerBefore = threads.getCurrentThreadAllocatedBytes();
+            byte[] chunk = new byte[CHUNK];
+            for (long sent = 0; sent < EXPORT_SIZE; sent += CHUNK) {
+                out.write(chunk);
+            }
+            writerAllocated.set(threads.getCurrentThreadAllocatedBytes() - writerBefore);
+        }, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "reports/test");
+        long callerAllocated = threads.getCurrentThreadAllocatedBytes() - callerBefore;
+
+        assertThat(objectName).startsWith("reports/test").endsWith(".xlsx");
+        assertThat(calls).hasSize(1);
+        // kích thước không biết trước, upload theo part cố định
+        assertThat(calls.get(0).objectSize()).isEqualTo(-1);
+        assertThat(calls.get(0).partSize()).isEqualTo(PART_SIZE);
+        assertThat(completedObjects).containsExactly(EXPORT_SIZE);
+        assertThat(callerAllocated + writerAllocated.get()).isLessThan(ALLOCATION_BUDGET);
+    }
+
+    @Test
+    void writerFailureAbortsUploadInsteadOfCompletingTruncatedObject() {
+        assertThatThrownBy(() -> storageService.streamUpload(out -> {
+            byte[] chunk = new byte[CHUNK];
+            for (int i = 0; i < 1024; i++) {
+                out.write(chunk);
+            }
+            throw new IOException("sheet generation failed");
+        }, "application/pdf", "reports/test"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Report generation failed")
+                .hasRootCauseMessage("sheet generation failed");
+
+        assertThat(calls).hasSize(1);
+        assertThat(completedObjects).isEmpty();
+    }
+
+    @Test
+    void writerFailureBeforeFirstByteAbortsUpload() {
+        assertThatThrownBy(() -> storageService.streamUpload(out -> {
+            throw new IllegalStateException("no data");
+        }, "application/pdf", "reports/test"))
+                .isInstanceOf(RuntimeException.class)
+                .hasRootCauseMessage("no data");
+
+        assertThat(completedObjects).isEmpty();
+    }
+
+    // Đọc đầy từng part (hoặc tới EOF) vào một bộ đệm như MinIO; trả về tổng số byte khi gặp EOF bình thường
+    private static long consumeInParts(InputStream in, long partSize) throws IOException {
+        byte[] part = new byte[(int) partSize];
+        long total = 0;
+        while (true) {
+            int filled = in.readNBytes(part, 0, part.length);
+            total += filled;
+            if (filled < part.length) {
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ptit.recruitservice.utils;
+
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDCIDFontType2;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PdfFontsTests {
+    private static final float FONT_SIZE = 10f;
+    private static final List<String> SAMPLES = List.of(
+            "Báo cáo tuyển dụng tháng 10/2026",
+            "Nguyễn Thị Hồng Nhung - Kỹ sư phần mềm",
+            "Ứng viên đã ứng tuyển: 1.234 (đạt 56,7%)",
+            "WWW mmm iii ... ---",
+            "Đà Nẵng, Hồ Chí Minh, Hà Nội");
+
+    @BeforeEach
+    void resetCache() throws Exception {
+        // đưa PdfFonts về trạng thái chưa nạp font để kiểm tra lần phân tích đầu tiên
+        setStatic("lexend", null);
+        setStatic("lexendCmap", null);
+        ((Map<?, ?>) getStatic("WIDTHS")).clear();
+    }
+
+    @Test
+    void fontIsParsedOnceAndSharedAcrossDocuments() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<TrueTypeFont>> tasks = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                tasks.add(() -> {
+                    try (PDDocument doc = new PDDocument()) {
+                        return trueTypeFont(PdfFonts.lexend(doc));
+                    }
+                });
+            }
+            TrueTypeFont parsed = null;
+            for (Future<TrueTypeFont> f : executor.invokeAll(tasks)) {
+                TrueTypeFont ttf = f.get();
+                if (parsed == null) {
+                    parsed = ttf;
+                }
+                assertThat(ttf).isSameAs(parsed);
+            }
+            assertThat(getStatic("lexend")).isSameAs(parsed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cachedWidthsMatchPdfBox() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            PDType0Font font = PdfFonts.lexend(doc);
+            for (String text : SAMPLES) {
+                // đo hai lần để lần sau lấy từ cache
+                assertThat(PdfFonts.stringWidth(text, FONT_SIZE)).isCloseTo(pdfBoxWidth(font, text), within(0.01f));
+                assertThat(PdfFonts.stringWidth(text, FONT_SIZE)).isCloseTo(pdfBoxWidth(font, text), within(0.01f));
+            }
+        }
+        assertThat(PdfFonts.stringWidth("", FONT_SIZE)).isZero();
+        assertThat(PdfFonts.stringWidth(null, FONT_SIZE)).isZero();
+    }
+
+    @Test
+    void fitToWidthKeepsTextThatFits() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            PDType0Font font = PdfFonts.lexend(doc);
+            for (String text : SAMPLES) {
+                assertThat(PdfFonts.fitToWidth(text, pdfBoxWidth(font, text), FONT_SIZE)).isEqualTo(text);
+            }
+        }
+        assertThat(PdfFonts.fitToWidth(null, 100, FONT_SIZE)).isEmpty();
+    }
+
+    @Test
+    void fitToWidthTruncatesToLongestPrefixThatFits() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            PDType0Font font = PdfFonts.lexend(doc);
+            for (String text : SAMPLES) {
+                float maxWidth = pdfBoxWidth(font, text) / 2;
+                String fitted = PdfFonts.fitToWidth(text, maxWidth, FONT_SIZE);
+
+                assertThat(fitted).endsWith("...");
+                String prefix = fitted.substring(0, fitted.length() - 3);
+                assertThat(text).startsWith(prefix);
+                assertThat(pdfBoxWidth(font, fitted)).isLessThanOrEqualTo(maxWidth + 0.01f);
+                // thêm một ký tự nữa thì vượt quá độ rộng
+                int next = prefix.length() + Character.charCount(text.codePointAt(prefix.length()));
+                assertThat(pdfBoxWidth(font, text.substring(0, next) + "...")).isGreaterThan(maxWidth - 0.01f);
+            }
+        }
+    }
+
+    private static float pdfBoxWidth(PDType0Font font, String text) throws Exception {
+        return font.getStringWidth(text) / 1000 * FONT_SIZE;
+    }
+
+    private static TrueTypeFont trueTypeFont(PDType0Font font) {
+        return ((PDCIDFontType2) font.getDescendantFont()).getTrueTypeFont();
+    }
+
+    private static Object getStatic(String name) throws Exception {
+        Field field = PdfFonts.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+
+    private static void setStatic(String name, Object value) throws Exception {
+        Field field = PdfFonts.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ptit.recruitservice.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCollapserTests {
+    private RequestCollapser<Integer, String> collapser;
+
+    @AfterEach
+    void tearDown() {
+        if (collapser != null) {
+            collapser.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentCallersEachGetTheirOwnValue() throws Exception {
+        collapser = collapser(keys -> {
+            Map<Integer, String> out = new HashMap<>();
+            keys.forEach(k -> out.put(k, "v" + k));
+            return out;
+        }, 50, 5_000);
+
+        CompletableFuture<String> a = CompletableFuture.supplyAsync(() -> collapser.get(1));
+        CompletableFuture<String> b = CompletableFuture.supplyAsync(() -> collapser.get(2));
+
+        assertThat(a.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+        assertThat(b.get(5, TimeUnit.SECONDS)).isEqualTo("v2");
+    }
+
+    @Test
+    void errorFromLoaderReachesCallerInsteadOfHanging() {
+        collapser = collapser(keys -> {
+            throw new StackOverflowError("decoder");
+        }, 1, 5_000);
+
+        assertThatThrownBy(() -> collapser.get(1)).isInstanceOf(StackOverflowError.class);
+    }
+
+    @Test
+    void callerGivesUpAfterTimeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        collapser = collapser(keys -> {
+            await(release);
+            return Map.of();
+        }, 1, 100);
+
+        assertThatThrownBy(() -> collapser.get(1)).isInstanceOf(IllegalStateException.class);
+        release.countDown();
+    }
+
+    @Test
+    void slowBatchDoesNotHoldLaterWindows() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        collapser = collapser(keys -> {
+            if (keys.contains(1)) {
+                await(release);
+            }
+            return Map.of(2, "v2");
+        }, 1, 5_000);
+
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> collapser.get(1));
+        Thread.sleep(50);
+        try {
+            assertThat(CompletableFuture.supplyAsync(() -> collapser.get(2)).get(2, TimeUnit.SECONDS)).isEqualTo("v2");
+        } finally {
+            release.countDown();
+        }
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void callsAfterShutdownFailInsteadOfHanging() {
+        collapser = collapser(keys -> Map.of(), 1, 60_000);
+        collapser.shutdown();
+
+        assertThatThrownBy(() -> collapser.get(1)).isInstanceOf(RejectedExecutionException.class);
+        // key không bị bỏ lại trong pending: lần gọi sau cũng lỗi ngay
+        assertThatThrownBy(() -> collapser.get(1)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static RequestCollapser<Integer, String> collapser(Function<Set<Integer>, Map<Integer, String>> loader,
+                                                               long windowMillis, long timeoutMillis) {
+        return new RequestCollapser<>("test-batch", loader, windowMillis, 100, timeoutMillis, 2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
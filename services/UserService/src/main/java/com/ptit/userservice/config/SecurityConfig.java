@@ -38,6 +38,8 @@ public class SecurityConfig {
                                                                 "/webjars/**",
                                                                 "/api/user-service/users/by-email/**",
                                                                 "/api/user-service/users/by-userId/**",
+                                                                "/api/user-service/users/by-ids",
+                                                                "/api/user-service/companies/by-ids",
                                                                 "/api/user-service/health/**")
                                                 .permitAll()
                                                 .anyRequest().authenticated())
@@ -116,6 +116,14 @@ public class CompanyController {
         return ResponseEntity.ok(companyService.getCompanyByCompanyId(companyId));
     }
 
+    @PostMapping("/by-ids")
+    public ResponseEntity<List<CompanyResponse>> getCompaniesByIds(@RequestBody List<UUID> companyIds, @RequestHeader("X-Internal-Secret") String secret) {
+        if (!internalSecret.equals(secret)) {
+            throw new AccessDeniedException("Access denied: invalid internal secret");
+        }
+        return ResponseEntity.ok(companyService.getCompaniesByIds(companyIds));
+    }
+
     @GetMapping("/{companyId}/employers")
     public ResponseEntity<List<EmployerResponse>> getEmployersByCompany(@PathVariable UUID companyId) {
         List<EmployerResponse> employers = companyService.getAllEmployersByCompany(companyId);
@@ -103,6 +103,14 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/by-ids")
+    public ResponseEntity<List<UserResponse>> getUsersByIds(@RequestBody List<UUID> userIds, @RequestHeader("X-Internal-Secret") String secret) {
+        if (!internalSecret.equals(secret)) {
+            throw new AccessDeniedException("Access denied: invalid internal secret");
+        }
+        return ResponseEntity.ok(userService.getUsersByIds(userIds));
+    }
+
     @PreAuthorize("hasAnyRole('CANDIDATE', 'EMPLOYER', 'ADMIN')")
     @PostMapping("/change-password")
     public ForgotPasswordResponse changePassword(@RequestBody ChangePasswordRequest request) {
@@ -21,7 +21,9 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -47,9 +49,22 @@ public class CompanyService {
     @Value("${log.activity.routing-key}")
     private String logActivityRoutingKey;
 
+    @Value("${company.exchange}")
+    private String companyExchange;
+
+    @Value("${company.changed.routing-key}")
+    private String companyChangedRoutingKey;
+
     @Value("${minio.bucket}")
     private String bucketName;
 
+    // Báo cho các service đang cache thông tin công ty (RecruitService) xóa bản ghi cũ
+    private void publishCompanyChanged(UUID companyId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("company_id", companyId);
+        eventPublisher.publish(companyExchange, companyChangedRoutingKey, event);
+    }
+
     public void deleteJobByCompanyId(UUID companyId) {
         externalRecruitServiceFeignClient.softDeleteJobByCompanyId(companyId, internalSecret);
     }
@@ -235,6 +250,7 @@ public class CompanyService {
             company.setCoverImgUrl(uploadCoverImg(request.getCoverImg()));
         }
         company = companyRepository.save(company);
+        publishCompanyChanged(company.getCompanyId());
 
         // Gửi log sang AdminService
         String role = isAdmin ? "ADMIN" : "EMPLOYER";
@@ -269,6 +285,7 @@ public class CompanyService {
         for (Employer employer : employers) {
             employerRepository.save(employer);
         }
+        publishCompanyChanged(companyId);
 
         // Gửi log sang AdminService
         eventPublisher.publish(
@@ -292,6 +309,8 @@ public class CompanyService {
         company.setDeleted(true);
         company = companyRepository.save(company);
 
+        publishCompanyChanged(companyId);
+
         // Soft delete all related jobs
         deleteJobByCompanyId(companyId);
 
@@ -327,6 +346,13 @@ public class CompanyService {
         return toResponse(company);
     }
 
+    // Tra cứu hàng loạt cho service nội bộ; id không tồn tại sẽ bị bỏ qua
+    public List<CompanyResponse> getCompaniesByIds(List<UUID> companyIds) {
+        return companyRepository.findAllById(companyIds).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     public List<EmployerResponse> getAllEmployersByCompany(UUID companyId) {
         // Kiểm tra công ty tồn tại
         Company company = companyRepository.findById(companyId)
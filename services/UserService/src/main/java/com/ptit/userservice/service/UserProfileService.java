@@ -27,6 +27,8 @@ import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -53,6 +55,19 @@ public class UserProfileService {
     @Value("${log.activity.routing-key}")
     private String logActivityRoutingKey;
 
+    @Value("${company.exchange}")
+    private String companyExchange;
+
+    @Value("${company.changed.routing-key}")
+    private String companyChangedRoutingKey;
+
+    // Nhà tuyển dụng đổi/rời công ty: RecruitService cần xóa cache công ty theo userId
+    private void publishEmployerCompanyChanged(UUID userId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("user_id", userId);
+        eventPublisher.publish(companyExchange, companyChangedRoutingKey, event);
+    }
+
     private String uploadAvatar(MultipartFile avatar) {
         if (avatar == null || avatar.isEmpty()) return null;
         try (InputStream is = avatar.getInputStream()) {
@@ -154,6 +169,7 @@ public class UserProfileService {
         employer.setAdmin(request.getAdmin());
         if (request.getPosition() != null) employer.setPosition(request.getPosition());
         employer = employerRepository.save(employer);
+        publishEmployerCompanyChanged(employer.getUser().getUserId());
 
         // Gửi log sang AdminService
         eventPublisher.publish(
@@ -256,6 +272,7 @@ public class UserProfileService {
         if (request.getPosition() != null)
             employer.setPosition(request.getPosition());
         employer = employerRepository.save(employer);
+        publishEmployerCompanyChanged(employer.getUser().getUserId());
 
         // Gửi log sang AdminService
         String actorRole = isEmployer ? "COMPANY_ADMIN" : "SYSTEM_ADMIN";
@@ -288,6 +305,7 @@ public class UserProfileService {
 
         // Delete the employer record completely
         employerRepository.delete(employer);
+        publishEmployerCompanyChanged(user.getUserId());
 
         // Publish activity log
         eventPublisher.publish(
@@ -318,6 +336,7 @@ public class UserProfileService {
 
         // Delete the employer record completely
         employerRepository.delete(employer);
+        publishEmployerCompanyChanged(user.getUserId());
 
         // Publish activity log by admin
         eventPublisher.publish(
@@ -196,6 +196,14 @@ public class UserService {
         return toResponse(user);
     }
 
+    // Tra cứu hàng loạt cho service nội bộ; người dùng đã xóa hoặc không tồn tại sẽ bị bỏ qua
+    public List<UserResponse> getUsersByIds(List<UUID> userIds) {
+        return userRepository.findAllById(userIds).stream()
+                .filter(u -> !u.isDeleted())
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     private UserResponse toResponse(User user) {
         UserResponse response = new UserResponse();
         response.setUserId(user.getUserId());